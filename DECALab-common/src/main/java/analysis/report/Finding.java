@@ -0,0 +1,91 @@
+package analysis.report;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A single reported vulnerability: which rule fired, where, and along which data-flow path.
+ */
+public class Finding {
+
+    private final String ruleId;
+    private final String methodSignature;
+    private final String statement;
+    /** First source line of the statement, or -1 if unknown. */
+    private final int line;
+    private final List<String> path;
+
+    public Finding(String ruleId, String methodSignature, String statement, int line, List<String> path) {
+        this.ruleId = ruleId;
+        this.methodSignature = methodSignature;
+        this.statement = statement;
+        this.line = line;
+        this.path = Collections.unmodifiableList(path);
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    public String getMethodSignature() {
+        return methodSignature;
+    }
+
+    public String getStatement() {
+        return statement;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public List<String> getPath() {
+        return path;
+    }
+
+    /** Identity used for deduplication; the path is deliberately not part of it. */
+    public String key() {
+        return ruleId + '|' + methodSignature + '|' + line + '|' + statement;
+    }
+
+    /**
+     * 64-bit hash of {@link #key()}, which reporters keep instead of the key itself. Boxed in a concurrent map
+     * together with {@link #keyCheck()} this costs roughly 80 bytes per finding on a 64-bit JVM, independent of
+     * the length of the key. Two distinct findings share a hash with a probability of about n&sup2;/2&sup6;&sup5;.
+     */
+    public long keyHash() {
+        // FNV-1a over the UTF-16 code units, then the MurmurHash3 finalizer to spread the bits
+        long h = 0xcbf29ce484222325L;
+        String key = key();
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Second 64-bit hash of {@link #key()}, computed independently of {@link #keyHash()}. Reporters compare it on a
+     * {@code keyHash()} hit to tell a duplicate from a distinct finding that happens to share the hash.
+     */
+    public long keyCheck() {
+        // polynomial hash over the UTF-16 code units, then the SplitMix64 finalizer
+        long h = 0x9e3779b97f4a7c15L;
+        String key = key();
+        for (int i = 0; i < key.length(); i++) {
+            h = 31 * h + key.charAt(i);
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    @Override
+    public String toString() {
+        return methodSignature + " - " + statement;
+    }
+}
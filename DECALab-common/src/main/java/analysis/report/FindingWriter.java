@@ -0,0 +1,13 @@
+package analysis.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Streams findings to a destination as they are reported. Implementations must be safe to call from
+ * several analysis threads at once.
+ */
+public interface FindingWriter extends Closeable {
+
+    void write(Finding finding) throws IOException;
+}
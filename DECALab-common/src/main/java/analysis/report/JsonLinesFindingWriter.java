@@ -0,0 +1,31 @@
+package analysis.report;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes one JSON object per finding and line, so consumers can process the output incrementally.
+ */
+public class JsonLinesFindingWriter implements FindingWriter {
+
+    private final Writer out;
+
+    public JsonLinesFindingWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public synchronized void write(Finding finding) throws IOException {
+        out.write("{\"ruleId\":" + Json.quote(finding.getRuleId())
+                + ",\"method\":" + Json.quote(finding.getMethodSignature())
+                + ",\"statement\":" + Json.quote(finding.getStatement())
+                + ",\"line\":" + finding.getLine()
+                + ",\"path\":" + Json.array(finding.getPath())
+                + "}\n");
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,55 @@
+package analysis.report;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes a SARIF 2.1.0 log. The header is written up front and every result is appended as soon as it is
+ * reported; the document is only complete after {@link #close()}.
+ */
+public class SarifFindingWriter implements FindingWriter {
+
+    private final Writer out;
+    private boolean first = true;
+
+    public SarifFindingWriter(Writer out, String toolName) throws IOException {
+        this.out = out;
+        out.write("{\"version\":\"2.1.0\","
+                + "\"$schema\":\"https://json.schemastore.org/sarif-2.1.0.json\","
+                + "\"runs\":[{\"tool\":{\"driver\":{\"name\":" + Json.quote(toolName) + "}},\"results\":[\n");
+    }
+
+    @Override
+    public synchronized void write(Finding finding) throws IOException {
+        if (!first) {
+            out.write(",\n");
+        }
+        first = false;
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"ruleId\":").append(Json.quote(finding.getRuleId()))
+                .append(",\"message\":{\"text\":").append(Json.quote(finding.getStatement())).append('}')
+                .append(",\"locations\":[{");
+        if (finding.getLine() > 0) {
+            sb.append("\"physicalLocation\":{\"region\":{\"startLine\":").append(finding.getLine()).append("}},");
+        }
+        sb.append("\"logicalLocations\":[{\"fullyQualifiedName\":").append(Json.quote(finding.getMethodSignature()))
+                .append(",\"kind\":\"function\"}]}]");
+        if (!finding.getPath().isEmpty()) {
+            sb.append(",\"codeFlows\":[{\"threadFlows\":[{\"locations\":[");
+            for (int i = 0; i < finding.getPath().size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append("{\"location\":{\"message\":{\"text\":").append(Json.quote(finding.getPath().get(i))).append("}}}");
+            }
+            sb.append("]}]}]");
+        }
+        out.write(sb.append('}').toString());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.write("\n]}]}\n");
+        out.close();
+    }
+}
@@ -0,0 +1,120 @@
+package analysis.trace;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands messages to a background thread that writes them to a file through a buffer.
+ * Producers only append to a lock-free queue. When more than {@code capacity} messages are pending,
+ * new messages are dropped and counted instead of blocking the analysis. Messages traced after {@link #close()}
+ * are dropped and counted as well; every message accepted before is written.
+ */
+public class AsyncFileTraceSink implements TraceSink, Closeable {
+
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    // producers between their check of closed and their offer, waited for by close()
+    private final AtomicInteger producing = new AtomicInteger();
+    private final int capacity;
+    private final BufferedWriter out;
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile boolean producersDone;
+    private IOException failure;
+
+    public AsyncFileTraceSink(Path file) throws IOException {
+        this(file, DEFAULT_CAPACITY);
+    }
+
+    public AsyncFileTraceSink(Path file, int capacity) throws IOException {
+        this.capacity = capacity;
+        this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        this.writer = new Thread(this::drain, "trace-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return !closed;
+    }
+
+    @Override
+    public void trace(String message) {
+        producing.incrementAndGet();
+        try {
+            if (closed) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if (size.incrementAndGet() > capacity) {
+                size.decrementAndGet();
+                dropped.incrementAndGet();
+                return;
+            }
+            pending.offer(message);
+        } finally {
+            producing.decrementAndGet();
+        }
+    }
+
+    /** Number of messages that were discarded because the writer could not keep up or the sink was closed. */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                String message = pending.poll();
+                if (message == null) {
+                    if (producersDone) {
+                        break;
+                    }
+                    out.flush();
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    continue;
+                }
+                size.decrementAndGet();
+                out.write(message);
+                out.newLine();
+            }
+            out.flush();
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /** Stops accepting messages, writes everything still pending and closes the file. */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        // a producer that saw the sink open still offers its message; the writer must see it before it stops
+        while (producing.get() > 0) {
+            Thread.yield();
+        }
+        producersDone = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        out.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
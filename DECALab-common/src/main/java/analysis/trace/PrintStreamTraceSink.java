@@ -0,0 +1,25 @@
+package analysis.trace;
+
+import java.io.PrintStream;
+
+/**
+ * Writes every message synchronously to a stream, e.g. {@code System.out} while debugging a single method.
+ */
+public class PrintStreamTraceSink implements TraceSink {
+
+    private final PrintStream out;
+
+    public PrintStreamTraceSink(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void trace(String message) {
+        out.println(message);
+    }
+}
@@ -0,0 +1,32 @@
+package analysis.trace;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Forwards only every n-th message to the wrapped sink. The decision is made in {@link #isEnabled()},
+ * so the skipped messages are never formatted.
+ */
+public class SamplingTraceSink implements TraceSink {
+
+    private final TraceSink delegate;
+    private final long rate;
+    private final AtomicLong events = new AtomicLong();
+
+    public SamplingTraceSink(TraceSink delegate, long rate) {
+        if (rate < 1) {
+            throw new IllegalArgumentException("Sampling rate must be at least 1 but was " + rate);
+        }
+        this.delegate = delegate;
+        this.rate = rate;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return events.getAndIncrement() % rate == 0 && delegate.isEnabled();
+    }
+
+    @Override
+    public void trace(String message) {
+        delegate.trace(message);
+    }
+}
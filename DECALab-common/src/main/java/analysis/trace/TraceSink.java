@@ -0,0 +1,25 @@
+package analysis.trace;
+
+/**
+ * Destination for the debug output of the analyses.
+ * Callers ask {@link #isEnabled()} before building a message, so a disabled sink costs no string formatting.
+ * Sampling sinks decide per event, so call {@link #isEnabled()} exactly once per message.
+ */
+public interface TraceSink {
+
+    /** Sink that drops everything, used by default. */
+    TraceSink NONE = new TraceSink() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void trace(String message) {
+        }
+    };
+
+    boolean isEnabled();
+
+    void trace(String message);
+}
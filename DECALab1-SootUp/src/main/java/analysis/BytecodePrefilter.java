@@ -0,0 +1,240 @@
+package analysis;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.annotation.Nonnull;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import sootup.core.model.SootMethod;
+
+/**
+ * Finds the methods that reference one of the tracked types by reading class files directly, so that
+ * Jimple bodies only need to be built for those. A class is only parsed further if its constant pool
+ * mentions a tracked type; its methods are then selected by the instructions and descriptors that do.
+ */
+public class BytecodePrefilter {
+
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+	private static final int CONSTANT_METHOD_TYPE = 16;
+
+	@Nonnull private final Set<String> internalNames = new HashSet<>();
+	@Nonnull private final Set<String> relevantClasses = new HashSet<>();
+	@Nonnull private final Set<String> relevantMethods = new HashSet<>();
+
+	/**
+	 * @param trackedTypes fully qualified names of the types whose use makes a method relevant
+	 */
+	public BytecodePrefilter(@Nonnull Collection<String> trackedTypes) {
+		for (String type : trackedTypes) {
+			internalNames.add(type.replace('.', '/'));
+		}
+	}
+
+	/**
+	 * Scans all class files in a class path entry, which is either a directory or a jar.
+	 */
+	@Nonnull
+	public BytecodePrefilter scan(@Nonnull Path classPathEntry) {
+		try {
+			if (Files.isDirectory(classPathEntry)) {
+				List<Path> classFiles;
+				try (Stream<Path> files = Files.walk(classPathEntry)) {
+					classFiles = files.filter(p -> p.toString().endsWith(".class")).collect(Collectors.toList());
+				}
+				for (Path classFile : classFiles) {
+					scan(Files.readAllBytes(classFile));
+				}
+			} else {
+				try (ZipFile jar = new ZipFile(classPathEntry.toFile())) {
+					Enumeration<? extends ZipEntry> entries = jar.entries();
+					while (entries.hasMoreElements()) {
+						ZipEntry entry = entries.nextElement();
+						if (entry.getName().endsWith(".class")) {
+							try (InputStream in = jar.getInputStream(entry)) {
+								scan(readAll(in));
+							}
+						}
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not scan " + classPathEntry, e);
+		}
+		return this;
+	}
+
+	/**
+	 * Scans a single class file.
+	 */
+	public void scan(@Nonnull byte[] classFile) {
+		ClassReader reader = new ClassReader(classFile);
+		if (!constantPoolMentionsTrackedType(reader)) {
+			return;
+		}
+		String className = reader.getClassName().replace('/', '.');
+		reader.accept(new ClassVisitor(Opcodes.ASM9) {
+			@Override
+			public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+				String key = key(className, name, descriptor);
+				if (mentionsTrackedType(descriptor)) {
+					markRelevant(className, key);
+					return null;
+				}
+				return new MethodVisitor(Opcodes.ASM9) {
+					@Override
+					public void visitTypeInsn(int opcode, String type) {
+						check(type);
+					}
+
+					@Override
+					public void visitFieldInsn(int opcode, String owner, String fieldName, String fieldDescriptor) {
+						check(owner);
+						check(fieldDescriptor);
+					}
+
+					@Override
+					public void visitMethodInsn(int opcode, String owner, String methodName, String methodDescriptor, boolean isInterface) {
+						check(owner);
+						check(methodDescriptor);
+					}
+
+					@Override
+					public void visitInvokeDynamicInsn(String methodName, String methodDescriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments) {
+						check(methodDescriptor);
+						for (Object argument : bootstrapMethodArguments) {
+							if (argument instanceof Handle) {
+								check(((Handle) argument).getOwner());
+								check(((Handle) argument).getDesc());
+							}
+						}
+					}
+
+					@Override
+					public void visitLdcInsn(Object value) {
+						if (value instanceof Type) {
+							check(((Type) value).getDescriptor());
+						}
+					}
+
+					@Override
+					public void visitMultiANewArrayInsn(String arrayDescriptor, int numDimensions) {
+						check(arrayDescriptor);
+					}
+
+					private void check(String nameOrDescriptor) {
+						if (mentionsTrackedType(nameOrDescriptor)) {
+							markRelevant(className, key);
+						}
+					}
+				};
+			}
+		}, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+	}
+
+	public boolean isRelevant(@Nonnull String className) {
+		return relevantClasses.contains(className);
+	}
+
+	public boolean isRelevant(@Nonnull SootMethod method) {
+		List<String> parameterTypes = new ArrayList<>();
+		for (sootup.core.types.Type parameterType : method.getParameterTypes()) {
+			parameterTypes.add(parameterType.toString());
+		}
+		return relevantMethods.contains(key(method.getDeclaringClassType().getFullyQualifiedName(),
+				method.getName(), method.getReturnType().toString(), parameterTypes));
+	}
+
+	@Nonnull
+	public Set<String> getRelevantClasses() {
+		return Collections.unmodifiableSet(relevantClasses);
+	}
+
+	private void markRelevant(@Nonnull String className, @Nonnull String methodKey) {
+		relevantClasses.add(className);
+		relevantMethods.add(methodKey);
+	}
+
+	/**
+	 * Checks class references and descriptors in the constant pool without parsing any method.
+	 */
+	private boolean constantPoolMentionsTrackedType(@Nonnull ClassReader reader) {
+		char[] buffer = new char[reader.getMaxStringLength()];
+		for (int i = 1; i < reader.getItemCount(); i++) {
+			int offset = reader.getItem(i);
+			// the second slot of long and double constants has no entry
+			if (offset == 0) {
+				continue;
+			}
+			int tag = reader.readByte(offset - 1);
+			String value;
+			if (tag == CONSTANT_CLASS || tag == CONSTANT_METHOD_TYPE) {
+				value = reader.readUTF8(offset, buffer);
+			} else if (tag == CONSTANT_NAME_AND_TYPE) {
+				value = reader.readUTF8(offset + 2, buffer);
+			} else {
+				continue;
+			}
+			if (mentionsTrackedType(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param nameOrDescriptor an internal class name, array or field descriptor, or method descriptor
+	 */
+	private boolean mentionsTrackedType(@Nonnull String nameOrDescriptor) {
+		for (String internalName : internalNames) {
+			if (nameOrDescriptor.equals(internalName) || nameOrDescriptor.contains("L" + internalName + ";")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Nonnull
+	private static String key(@Nonnull String className, @Nonnull String name, @Nonnull String descriptor) {
+		List<String> parameterTypes = new ArrayList<>();
+		for (Type argumentType : Type.getArgumentTypes(descriptor)) {
+			parameterTypes.add(argumentType.getClassName());
+		}
+		return key(className, name, Type.getReturnType(descriptor).getClassName(), parameterTypes);
+	}
+
+	@Nonnull
+	private static String key(@Nonnull String className, @Nonnull String name, @Nonnull String returnType, @Nonnull List<String> parameterTypes) {
+		return returnType + " " + className + "." + name + "(" + String.join(",", parameterTypes) + ")";
+	}
+
+	@Nonnull
+	private static byte[] readAll(@Nonnull InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+		return out.toByteArray();
+	}
+}
@@ -1,12 +1,16 @@
 package analysis;
 
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.Value;
 
 /**
- * The Class FileStateFact records the state of a file object
+ * The Class FileStateFact records the state of a file object. After a join it may hold several states,
+ * one for each path the object was reached on.
  */
 public class FileStateFact{
 
@@ -17,11 +21,11 @@ public class FileStateFact{
 	/** The aliases point to the same File object. */
 	private final Set<Value> aliases;
 
-	/** The state of the file object.*/
-	private FileState state;
+	/** The possible states of the file object.*/
+	private final EnumSet<FileState> states;
 
 	public FileStateFact(@Nonnull FileStateFact fsf) {
-		this(new HashSet<>(fsf.aliases),fsf.state);
+		this(new HashSet<>(fsf.aliases),fsf.states);
 	}
 
 	public FileStateFact(@Nonnull FileState state) {
@@ -29,12 +33,43 @@ public class FileStateFact{
 	}
 
 	public FileStateFact(@Nonnull Set<Value> aliases, @Nonnull FileState state) {
+		this(aliases, EnumSet.of(state));
+	}
+
+	public FileStateFact(@Nonnull Set<Value> aliases, @Nonnull Set<FileState> states) {
 		this.aliases = aliases;
-		this.state = state;
+		this.states = EnumSet.copyOf(states);
 	}
 
 	public void updateState(@Nonnull FileState state) {
-		this.state = state;
+		this.states.clear();
+		this.states.add(state);
+	}
+
+	/**
+	 * Joins two facts for the same file object reached on different paths: the result has the states of both, but
+	 * only the aliases they have in common, since an alias of one path need not point to the object on the other.
+	 */
+	@Nonnull
+	public FileStateFact join(@Nonnull FileStateFact other) {
+		Set<Value> joinedAliases = new LinkedHashSet<>();
+		for (Value alias : aliases) {
+			if (other.containsAlias(alias)) {
+				joinedAliases.add(alias);
+			}
+		}
+		EnumSet<FileState> joinedStates = EnumSet.copyOf(states);
+		joinedStates.addAll(other.states);
+		return new FileStateFact(joinedAliases, joinedStates);
+	}
+
+	public boolean sharesAlias(@Nonnull FileStateFact other) {
+		for (Value alias : other.aliases) {
+			if (containsAlias(alias)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	public void addAlias(@Nonnull Value alias) {
@@ -42,7 +77,7 @@ public class FileStateFact{
 	}
 
 	public boolean isOpened() {
-		return state == FileState.Open;
+		return states.contains(FileState.Open);
 	}
 
 	public boolean containsAlias(@Nonnull Value value) {
@@ -63,15 +98,23 @@ public class FileStateFact{
 		return false;
 	}
 
+	/**
+	 * @return Open if the file may be open, otherwise the only or the least advanced state
+	 */
 	@Nonnull
 	public FileState getState() {
-		return this.state;
+		return isOpened() ? FileState.Open : states.iterator().next();
+	}
+
+	@Nonnull
+	public Set<FileState> getStates() {
+		return Collections.unmodifiableSet(states);
 	}
 
 	@Override
 	@Nonnull
 	public String toString() {
-		return "(" + aliases + ", " + state + ")";
+		return "(" + aliases + ", " + (states.size() == 1 ? states.iterator().next() : states) + ")";
 	}
 	
 	@Override
@@ -79,7 +122,7 @@ public class FileStateFact{
 		final int prime = 31;
 		int result = 1;
 		result = prime * result + aliases.hashCode();
-		result = prime * result + ((state == null) ? 0 : state.hashCode());
+		result = prime * result + states.hashCode();
 		return result;
 	}
 
@@ -98,7 +141,7 @@ public class FileStateFact{
         if (!aliases.equals(other.aliases)) {
             return false;
         }
-        return state == other.state;
+        return states.equals(other.states);
     }
 
 
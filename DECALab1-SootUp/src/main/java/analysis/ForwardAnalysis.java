@@ -1,5 +1,6 @@
 package analysis;
 
+import analysis.trace.TraceSink;
 import java.util.Map;
 import javax.annotation.Nonnull;
 import sootup.analysis.intraprocedural.ForwardFlowAnalysis;
@@ -11,18 +12,26 @@ public abstract class ForwardAnalysis<F> extends ForwardFlowAnalysis<F> {
 	protected final VulnerabilityReporter reporter;
 	@Nonnull
 	protected final JavaSootMethod method;
+	@Nonnull
+	protected TraceSink trace = TraceSink.NONE;
 		
 	public ForwardAnalysis(@Nonnull JavaSootMethod method, @Nonnull VulnerabilityReporter reporter) {
 		super(method.getBody().getStmtGraph());
 		this.method = method;
 		this.reporter = reporter;
-		System.out.println("Method: "+method.getSignature());
+	}
+
+	public void setTraceSink(@Nonnull TraceSink trace) {
+		this.trace = trace;
 	}
 
 	protected void prettyPrint(@Nonnull F in, @Nonnull Stmt stmt, @Nonnull F out)
 	{
+		if (!trace.isEnabled()) {
+			return;
+		}
 		String s=String.format("\t%10s%s\n\t%10s%s\n\t%10s%s\n","In Fact: ", in, "Stmt: ", stmt, "Out Fact: ", out);
-		System.out.println(s); 
+		trace.trace(s);
 	}
 
 	public Map<Stmt,F> getStmtToAfterFlow()
@@ -48,6 +57,9 @@ public abstract class ForwardAnalysis<F> extends ForwardFlowAnalysis<F> {
 	 * */
 	@Override
 	public void execute() {
+		if (trace.isEnabled()) {
+			trace.trace("Method: " + method.getSignature());
+		}
 		super.execute();
 	}
 }
@@ -1,24 +1,107 @@
 package analysis;
 
+import analysis.report.Finding;
+import analysis.report.FindingWriter;
+import analysis.trace.TraceSink;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.signatures.MethodSignature;
 
+/**
+ * Collects the findings of the analyses. Reporting is safe from several threads, appends without locking
+ * and ignores a finding that was already reported for the same rule and statement.
+ * With a {@link FindingWriter} attached, findings are streamed out; only two 64-bit hashes of each are kept in
+ * memory. A distinct finding whose first hash collides with an earlier one is still reported, see
+ * {@link #getHashCollisions()}.
+ */
 public class VulnerabilityReporter{
-	
-	private final List<String> vulnerabilities;
-	
+
+	public static final String DEFAULT_RULE_ID = "vulnerability";
+
+	private final Queue<Finding> vulnerabilities = new ConcurrentLinkedQueue<>();
+	// Finding#keyHash() -> Finding#keyCheck() of the first finding reported with that hash
+	private final ConcurrentHashMap<Long, Long> seen = new ConcurrentHashMap<>();
+	private final LongAdder collisions = new LongAdder();
+	@Nonnull private final TraceSink trace;
+	@Nullable private final FindingWriter writer;
+
 	public VulnerabilityReporter() {
-		vulnerabilities = new ArrayList<>();
+		this(TraceSink.NONE);
+	}
+
+	public VulnerabilityReporter(@Nonnull TraceSink trace) {
+		this(trace, null);
+	}
+
+	public VulnerabilityReporter(@Nonnull TraceSink trace, @Nullable FindingWriter writer) {
+		this.trace = trace;
+		this.writer = writer;
 	}
 
 	public void reportVulnerability(MethodSignature methodSignature, Stmt unit){
-		System.err.println("Vulnerability found in method " + methodSignature + " at " + unit);
-		vulnerabilities.add(methodSignature + " - " + unit.toString());
+		reportVulnerability(DEFAULT_RULE_ID, methodSignature, unit, Collections.emptyList());
+	}
+
+	public void reportVulnerability(@Nonnull String ruleId, @Nonnull MethodSignature methodSignature, @Nonnull Stmt unit, @Nonnull List<String> path) {
+		Finding finding = new Finding(ruleId, methodSignature.toString(), unit.toString(),
+				unit.getPositionInfo().getStmtPosition().getFirstLine(), path);
+		long check = finding.keyCheck();
+		Long previous = seen.putIfAbsent(finding.keyHash(), check);
+		if (previous != null) {
+			if (previous == check) {
+				return;
+			}
+			// a distinct finding sharing the hash: keep it rather than silently dropping it
+			collisions.increment();
+		}
+		if (trace.isEnabled()) {
+			trace.trace("Vulnerability found in method " + methodSignature + " at " + unit);
+		}
+		if (writer == null) {
+			vulnerabilities.add(finding);
+			return;
+		}
+		try {
+			writer.write(finding);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not write finding " + finding, e);
+		}
+	}
+
+	/** Findings kept in memory, in reporting order. Empty when a {@link FindingWriter} is attached. */
+	@Nonnull
+	public List<Finding> getFindings() {
+		return new ArrayList<>(vulnerabilities);
+	}
+
+	/** Number of distinct findings, including streamed ones. */
+	public int getFindingCount() {
+		return seen.size() + collisions.intValue();
+	}
+
+	/**
+	 * Number of findings whose {@link Finding#keyHash()} matched an earlier, distinct finding. They are reported
+	 * anyway; a repeat of such a finding is reported again, so this may include duplicates.
+	 */
+	public int getHashCollisions() {
+		return collisions.intValue();
 	}
-	
+
 	public List<String> getReportedVulnerabilities(){
-		return vulnerabilities;
+		List<String> result = new ArrayList<>();
+		for (Finding finding : vulnerabilities) {
+			result.add(finding.toString());
+		}
+		return result;
 	}
 }
@@ -2,9 +2,9 @@ package analysis.exercise1;
 
 import analysis.AbstractAnalysis;
 import analysis.VulnerabilityReporter;
+import java.util.Collections;
 import javax.annotation.Nonnull;
 import sootup.core.jimple.basic.Value;
-import sootup.core.jimple.common.constant.StringConstant;
 import sootup.core.jimple.common.expr.AbstractInvokeExpr;
 import sootup.core.jimple.common.stmt.JAssignStmt;
 import sootup.core.jimple.common.stmt.JInvokeStmt;
@@ -14,8 +14,23 @@ import sootup.core.types.ClassType;
 import sootup.java.core.JavaSootMethod;
 
 public class MisuseAnalysis extends AbstractAnalysis{
+	public static final String RULE_ID = "CIPHER_MISUSE";
+	public static final String TRACKED_TYPE = "javax.crypto.Cipher";
+
+	@Nonnull private final StringConstantPropagation constants;
+
 	public MisuseAnalysis(@Nonnull JavaSootMethod method, @Nonnull VulnerabilityReporter reporter) {
+		this(method, reporter, new StringConstantPropagation());
+	}
+
+	/**
+	 * @param constants resolves transformation strings that are not passed as a literal; share one instance
+	 *                  between the analyses of a class so its results are reused
+	 */
+	public MisuseAnalysis(@Nonnull JavaSootMethod method, @Nonnull VulnerabilityReporter reporter,
+			@Nonnull StringConstantPropagation constants) {
 		super(method, reporter);
+		this.constants = constants;
 	}
 
 	/**
@@ -34,14 +49,14 @@ public class MisuseAnalysis extends AbstractAnalysis{
 		if (!isCipherGetInstance(signature)) return;
 
 		if (invokeExpr.getArgCount() == 0) {
-			reporter.reportVulnerability(method.getSignature(), stmt);
+			reporter.reportVulnerability(RULE_ID, method.getSignature(), stmt, Collections.emptyList());
 			return;
 		}
 
-		Value firstArg = invokeExpr.getArg(0);
-		if (firstArg instanceof StringConstant && 
-		    !"AES/GCM/PKCS5Padding".equals(((StringConstant) firstArg).getValue())) {
-		    reporter.reportVulnerability(method.getSignature(), stmt);
+		// the transformation may be built in locals or come from a field before reaching the call
+		String transformation = constants.resolve(method, stmt, invokeExpr.getArg(0));
+		if (transformation != null && !"AES/GCM/PKCS5Padding".equals(transformation)) {
+			reporter.reportVulnerability(RULE_ID, method.getSignature(), stmt, Collections.emptyList());
 		}
 	}
 
@@ -63,7 +78,7 @@ public class MisuseAnalysis extends AbstractAnalysis{
 	private boolean isCipherGetInstance(@Nonnull MethodSignature signature) {
 		ClassType declType = signature.getDeclClassType();
 		return declType != null
-				&& "javax.crypto.Cipher".equals(declType.getFullyQualifiedName())
+				&& TRACKED_TYPE.equals(declType.getFullyQualifiedName())
 				&& "getInstance".equals(signature.getName());
 	}
 }
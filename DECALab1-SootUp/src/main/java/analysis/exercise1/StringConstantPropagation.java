@@ -0,0 +1,362 @@
+package analysis.exercise1;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.analysis.intraprocedural.ForwardFlowAnalysis;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.StringConstant;
+import sootup.core.jimple.common.expr.AbstractInstanceInvokeExpr;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JCastExpr;
+import sootup.core.jimple.common.expr.JNewExpr;
+import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
+import sootup.core.jimple.common.expr.JStaticInvokeExpr;
+import sootup.core.jimple.common.ref.JFieldRef;
+import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootField;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
+import sootup.core.types.Type;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.views.JavaView;
+
+/**
+ * Pre-pass that finds out which locals hold a known string at a statement. It follows string constants,
+ * local copies and {@code StringBuilder}/{@code StringBuffer} concatenation within a method, also through locals that
+ * alias the same builder.
+ * With a view, it additionally uses field summaries: a private or final field whose only writes are the same
+ * constant in constructors or static initializers of its class.
+ * Results are computed once per method and cached, so one instance should be shared across analyses.
+ */
+public class StringConstantPropagation {
+
+	private static final String NOT_CONSTANT = new String("<not constant>");
+
+	@Nullable private final JavaView view;
+	private final Map<MethodSignature, Constants> methods = new ConcurrentHashMap<>();
+	private final Map<FieldSignature, String> fields = new ConcurrentHashMap<>();
+
+	/** Intraprocedural propagation only. */
+	public StringConstantPropagation() {
+		this(null);
+	}
+
+	/** Intraprocedural propagation plus field summaries computed from the classes in the view. */
+	public StringConstantPropagation(@Nullable JavaView view) {
+		this.view = view;
+	}
+
+	/**
+	 * @return the string {@code value} holds right before {@code stmt} is executed, or null if it is not a known constant
+	 */
+	@Nullable
+	public String resolve(@Nonnull SootMethod method, @Nonnull Stmt stmt, @Nonnull Value value) {
+		if (value instanceof StringConstant) {
+			return ((StringConstant) value).getValue();
+		}
+		if (!(value instanceof Local)) {
+			return null;
+		}
+		return constantsOf(method, view != null).before(stmt).get(value);
+	}
+
+	@Nonnull
+	private Constants constantsOf(@Nonnull SootMethod method, boolean withFields) {
+		Constants constants = methods.get(method.getSignature());
+		if (constants == null || (withFields && !constants.withFields)) {
+			constants = new Constants(method, withFields ? this::fieldValue : null);
+			methods.put(method.getSignature(), constants);
+		}
+		return constants;
+	}
+
+	@Nullable
+	private String fieldValue(@Nonnull FieldSignature field) {
+		String value = fields.get(field);
+		if (value == null) {
+			value = summarize(field);
+			fields.put(field, value);
+		}
+		return value == NOT_CONSTANT ? null : value;
+	}
+
+	@Nonnull
+	private String summarize(@Nonnull FieldSignature field) {
+		Optional<JavaSootClass> declaringClass = view.getClass(field.getDeclClassType());
+		if (!declaringClass.isPresent()) {
+			return NOT_CONSTANT;
+		}
+		SootField sootField = null;
+		for (SootField f : declaringClass.get().getFields()) {
+			if (f.getSignature().equals(field)) {
+				sootField = f;
+			}
+		}
+		// other classes could write a field that is neither private nor final
+		if (sootField == null || !(sootField.isPrivate() || sootField.isFinal())) {
+			return NOT_CONSTANT;
+		}
+		String value = null;
+		for (SootMethod m : declaringClass.get().getMethods()) {
+			if (!m.hasBody()) {
+				continue;
+			}
+			boolean initializer = m.getName().equals("<init>") || m.getName().equals("<clinit>");
+			for (Stmt s : m.getBody().getStmts()) {
+				if (!(s instanceof JAssignStmt) || !(((JAssignStmt) s).getLeftOp() instanceof JFieldRef)) {
+					continue;
+				}
+				if (!((JFieldRef) ((JAssignStmt) s).getLeftOp()).getFieldSignature().equals(field)) {
+					continue;
+				}
+				if (!initializer) {
+					return NOT_CONSTANT;
+				}
+				Value rightOp = ((JAssignStmt) s).getRightOp();
+				// writes are resolved intraprocedurally, which keeps summaries from depending on each other
+				String written = rightOp instanceof StringConstant
+						? ((StringConstant) rightOp).getValue()
+						: rightOp instanceof Local ? constantsOf(m, false).before(s).get(rightOp) : null;
+				if (written == null || (value != null && !value.equals(written))) {
+					return NOT_CONSTANT;
+				}
+				value = written;
+			}
+		}
+		return value == null ? NOT_CONSTANT : value;
+	}
+
+	private static boolean isStringBuilder(@Nonnull MethodSignature signature) {
+		return isStringBuilder(signature.getDeclClassType());
+	}
+
+	private static boolean isStringBuilder(@Nonnull Type type) {
+		if (!(type instanceof ClassType)) {
+			return false;
+		}
+		String name = ((ClassType) type).getFullyQualifiedName();
+		return name.equals("java.lang.StringBuilder") || name.equals("java.lang.StringBuffer");
+	}
+
+	/**
+	 * Must analysis over the values of locals: an entry only survives a join if both sides agree. Builder locals
+	 * additionally carry the allocation of the builder they point to, so that a change through one local is seen by
+	 * all locals that must point to the same builder.
+	 */
+	private static class Constants extends ForwardFlowAnalysis<Constants.Flow> {
+
+		@Nullable private final Function<FieldSignature, String> fieldValues;
+		private final boolean withFields;
+
+		Constants(@Nonnull SootMethod method, @Nullable Function<FieldSignature, String> fieldValues) {
+			super(method.getBody().getStmtGraph());
+			this.fieldValues = fieldValues;
+			this.withFields = fieldValues != null;
+			execute();
+		}
+
+		@Nonnull
+		Map<Local, String> before(@Nonnull Stmt stmt) {
+			Flow flow = getFlowBefore(stmt);
+			return flow == null ? Collections.emptyMap() : flow.values;
+		}
+
+		@Override
+		protected void flowThrough(@Nonnull Flow in, @Nonnull Stmt stmt, @Nonnull Flow out) {
+			copy(in, out);
+			if (stmt.containsInvokeExpr()) {
+				AbstractInvokeExpr invoke = stmt.getInvokeExpr();
+				if (invoke instanceof AbstractInstanceInvokeExpr && isStringBuilder(invoke.getMethodSignature())) {
+					updateBuilder(out, (AbstractInstanceInvokeExpr) invoke);
+				} else {
+					// builders passed to unknown code may be modified there
+					for (Value arg : invoke.getArgs()) {
+						if (arg instanceof Local && isStringBuilder(arg.getType())) {
+							putBuilder(out, (Local) arg, null);
+						}
+					}
+				}
+			}
+			if (!(stmt instanceof JAssignStmt) || !(((JAssignStmt) stmt).getLeftOp() instanceof Local)) {
+				return;
+			}
+			Local leftOp = (Local) ((JAssignStmt) stmt).getLeftOp();
+			Value rightOp = ((JAssignStmt) stmt).getRightOp();
+			put(out.values, leftOp, valueOf(in.values, out.values, rightOp));
+			if (isStringBuilder(leftOp.getType())) {
+				if (rightOp instanceof JNewExpr) {
+					// a new builder from the same allocation, e.g. in a loop, is not the one older locals point to
+					out.builders.values().removeIf(builder -> builder == stmt);
+				}
+				put(out.builders, leftOp, builderOf(out, stmt, rightOp));
+			}
+		}
+
+		/** Applies {@code <init>}, {@code append} and unknown calls on a builder to all locals pointing to it. */
+		private void updateBuilder(@Nonnull Flow out, @Nonnull AbstractInstanceInvokeExpr invoke) {
+			Local base = invoke.getBase();
+			String name = invoke.getMethodSignature().getName();
+			if (invoke instanceof JSpecialInvokeExpr && name.equals("<init>")) {
+				String initial = invoke.getArgCount() == 0 ? "" : valueOf(out.values, out.values, invoke.getArg(0));
+				putBuilder(out, base, initial);
+			} else if (name.equals("append") && invoke.getArgCount() == 1) {
+				putBuilder(out, base, concat(out.values.get(base), valueOf(out.values, out.values, invoke.getArg(0))));
+			} else if (!name.equals("toString") && !name.equals("length")) {
+				putBuilder(out, base, null);
+			}
+		}
+
+		/**
+		 * Sets the value of the builder {@code local} points to. A builder of unknown origin may be any builder that
+		 * escaped, so a change to it invalidates all other builder locals.
+		 */
+		private static void putBuilder(@Nonnull Flow flow, @Nonnull Local local, @Nullable String value) {
+			Stmt builder = flow.builders.get(local);
+			if (builder == null) {
+				flow.values.keySet().removeIf(other -> isStringBuilder(other.getType()));
+				put(flow.values, local, value);
+				return;
+			}
+			for (Map.Entry<Local, Stmt> entry : flow.builders.entrySet()) {
+				if (entry.getValue() == builder) {
+					put(flow.values, entry.getKey(), value);
+				}
+			}
+		}
+
+		/** @return the allocation of the builder {@code rightOp} evaluates to, or null if it is unknown */
+		@Nullable
+		private static Stmt builderOf(@Nonnull Flow flow, @Nonnull Stmt stmt, @Nonnull Value rightOp) {
+			if (rightOp instanceof JNewExpr) {
+				return stmt;
+			}
+			if (rightOp instanceof JCastExpr) {
+				rightOp = ((JCastExpr) rightOp).getOp();
+			}
+			if (rightOp instanceof Local) {
+				return flow.builders.get(rightOp);
+			}
+			if (rightOp instanceof AbstractInstanceInvokeExpr && isStringBuilder(((AbstractInvokeExpr) rightOp).getMethodSignature())
+					&& ((AbstractInvokeExpr) rightOp).getMethodSignature().getName().equals("append")) {
+				// append returns the builder it is called on
+				return flow.builders.get(((AbstractInstanceInvokeExpr) rightOp).getBase());
+			}
+			return null;
+		}
+
+		@Nullable
+		private String valueOf(@Nonnull Map<Local, String> in, @Nonnull Map<Local, String> current, @Nonnull Value value) {
+			if (value instanceof StringConstant) {
+				return ((StringConstant) value).getValue();
+			}
+			if (value instanceof Local) {
+				return in.get(value);
+			}
+			if (value instanceof JFieldRef) {
+				return fieldValues == null ? null : fieldValues.apply(((JFieldRef) value).getFieldSignature());
+			}
+			if (!(value instanceof AbstractInvokeExpr)) {
+				return null;
+			}
+			AbstractInvokeExpr invoke = (AbstractInvokeExpr) value;
+			MethodSignature signature = invoke.getMethodSignature();
+			if (invoke instanceof AbstractInstanceInvokeExpr) {
+				Local base = ((AbstractInstanceInvokeExpr) invoke).getBase();
+				if (isStringBuilder(signature) && (signature.getName().equals("append") || signature.getName().equals("toString"))) {
+					// the builder local was already updated in flowThrough
+					return current.get(base);
+				}
+				if (signature.getDeclClassType().getFullyQualifiedName().equals("java.lang.String")) {
+					if (signature.getName().equals("concat")) {
+						return concat(in.get(base), valueOf(in, in, invoke.getArg(0)));
+					}
+					if (signature.getName().equals("toString") || signature.getName().equals("intern")) {
+						return in.get(base);
+					}
+				}
+			}
+			if (invoke instanceof JStaticInvokeExpr && signature.getName().equals("valueOf") && invoke.getArgCount() == 1
+					&& signature.getDeclClassType().getFullyQualifiedName().equals("java.lang.String")) {
+				return valueOf(in, in, invoke.getArg(0));
+			}
+			return null;
+		}
+
+		@Nullable
+		private static String concat(@Nullable String left, @Nullable String right) {
+			return left == null || right == null ? null : left + right;
+		}
+
+		private static <V> void put(@Nonnull Map<Local, V> flow, @Nonnull Local local, @Nullable V value) {
+			if (value == null) {
+				flow.remove(local);
+			} else {
+				flow.put(local, value);
+			}
+		}
+
+		@Nonnull
+		@Override
+		protected Flow newInitialFlow() {
+			return new Flow();
+		}
+
+		@Override
+		protected void merge(@Nonnull Flow in1, @Nonnull Flow in2, @Nonnull Flow out) {
+			Map<Local, String> values = intersect(in1.values, in2.values);
+			Map<Local, Stmt> builders = intersect(in1.builders, in2.builders);
+			out.values.clear();
+			out.values.putAll(values);
+			out.builders.clear();
+			out.builders.putAll(builders);
+		}
+
+		@Nonnull
+		private static <V> Map<Local, V> intersect(@Nonnull Map<Local, V> in1, @Nonnull Map<Local, V> in2) {
+			Map<Local, V> out = new HashMap<>();
+			for (Map.Entry<Local, V> entry : in1.entrySet()) {
+				if (entry.getValue().equals(in2.get(entry.getKey()))) {
+					out.put(entry.getKey(), entry.getValue());
+				}
+			}
+			return out;
+		}
+
+		@Override
+		protected void copy(@Nonnull Flow source, @Nonnull Flow dest) {
+			if (source != dest) {
+				dest.values.clear();
+				dest.values.putAll(source.values);
+				dest.builders.clear();
+				dest.builders.putAll(source.builders);
+			}
+		}
+
+		static class Flow {
+			/** the known string of a local, for a builder local the current contents of its builder */
+			final Map<Local, String> values = new HashMap<>();
+			/** the allocation of the builder a builder local must point to */
+			final Map<Local, Stmt> builders = new HashMap<>();
+
+			@Override
+			public boolean equals(Object o) {
+				return o instanceof Flow && values.equals(((Flow) o).values) && builders.equals(((Flow) o).builders);
+			}
+
+			@Override
+			public int hashCode() {
+				return 31 * values.hashCode() + builders.hashCode();
+			}
+		}
+	}
+}
@@ -4,6 +4,7 @@ import analysis.FileStateFact;
 import analysis.ForwardAnalysis;
 import analysis.VulnerabilityReporter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -25,6 +26,9 @@ import sootup.java.core.JavaSootMethod;
 
 public class TypeStateAnalysis extends ForwardAnalysis<Set<FileStateFact>> {
 
+    public static final String RULE_ID = "FILE_NOT_CLOSED";
+    public static final String TRACKED_TYPE = "target.exercise2.File";
+
     public TypeStateAnalysis(@Nonnull JavaSootMethod method, @Nonnull VulnerabilityReporter reporter) {
         super(method, reporter);
     }
@@ -47,7 +51,7 @@ public class TypeStateAnalysis extends ForwardAnalysis<Set<FileStateFact>> {
         if (stmt instanceof JReturnStmt || stmt instanceof JReturnVoidStmt) {
             for (FileStateFact fact : out) {
                 if (fact.getState() == FileStateFact.FileState.Open) {
-                    reporter.reportVulnerability(method.getSignature(), stmt);
+                    reporter.reportVulnerability(RULE_ID, method.getSignature(), stmt, Collections.emptyList());
                 }
             }
         }
@@ -60,7 +64,7 @@ public class TypeStateAnalysis extends ForwardAnalysis<Set<FileStateFact>> {
         Value rightOp = stmt.getRightOp();
         removeAlias(leftOp, facts, stmt, allValues); // kill old aliases of left side operations
 
-        if (rightOp instanceof JNewExpr && "target.exercise2.File".equals(((JNewExpr) rightOp).getType().toString())) {
+        if (rightOp instanceof JNewExpr && TRACKED_TYPE.equals(((JNewExpr) rightOp).getType().toString())) {
             LinkedHashSet<Value> tmp = new LinkedHashSet<>();
             tmp.add(leftOp);
             Set<Value> aliases = orderAliases(tmp);
@@ -77,14 +81,14 @@ public class TypeStateAnalysis extends ForwardAnalysis<Set<FileStateFact>> {
             FileStateFact fact = it.next();
             if (fact.containsAlias(rightOp)) {
                 it.remove();
-                updates.add(new FileStateFact(orderAliases(addAlias(collectAliases(fact, allValues), leftOp)), fact.getState()));
+                updates.add(new FileStateFact(orderAliases(addAlias(collectAliases(fact, allValues), leftOp)), fact.getStates()));
             }
         }
         facts.addAll(updates);
     }
 
     private void handleInvocation(Set<FileStateFact> facts, AbstractInvokeExpr expr, Set<Value> allValues) {
-        if (!"target.exercise2.File".equals(expr.getMethodSignature().getDeclClassType().getFullyQualifiedName())) {
+        if (!TRACKED_TYPE.equals(expr.getMethodSignature().getDeclClassType().getFullyQualifiedName())) {
             return;
         }
 
@@ -131,10 +135,10 @@ public class TypeStateAnalysis extends ForwardAnalysis<Set<FileStateFact>> {
 
                 if (remaining.isEmpty()) {
                     if (fact.getState() == FileStateFact.FileState.Open) {
-                        reporter.reportVulnerability(method.getSignature(), stmt);
+                        reporter.reportVulnerability(RULE_ID, method.getSignature(), stmt, Collections.emptyList());
                     }
                 } else {
-                    survivors.add(new FileStateFact(orderAliases(remaining), fact.getState()));
+                    survivors.add(new FileStateFact(orderAliases(remaining), fact.getStates()));
                 }
             }
         }
@@ -252,14 +256,35 @@ public class TypeStateAnalysis extends ForwardAnalysis<Set<FileStateFact>> {
         }
     }
 
+    /**
+     * Canonicalizing join: facts whose alias sets overlap describe the same file object and are collapsed
+     * into one fact holding the states of all of them and the aliases common to all of them, so a statement keeps
+     * at most one fact per object. Facts without a common alias stay separate.
+     */
     @Override
     protected void merge(@Nonnull Set<FileStateFact> in1, @Nonnull Set<FileStateFact> in2, @Nonnull Set<FileStateFact> out) {
-        out.clear();
+        List<FileStateFact> joined = new ArrayList<>();
         for (FileStateFact f : in1) {
-            out.add(new FileStateFact(f));
+            addCanonical(joined, f);
         }
         for (FileStateFact f : in2) {
-            out.add(new FileStateFact(f));
+            addCanonical(joined, f);
+        }
+        out.clear();
+        out.addAll(joined);
+    }
+
+    // facts in the list have pairwise disjoint aliases; joining only shrinks the alias set of the new fact
+    private void addCanonical(List<FileStateFact> facts, FileStateFact fact) {
+        FileStateFact current = new FileStateFact(fact);
+        Iterator<FileStateFact> it = facts.iterator();
+        while (it.hasNext()) {
+            FileStateFact other = it.next();
+            if (other.sharesAlias(current)) {
+                it.remove();
+                current = current.join(other);
+            }
         }
+        facts.add(current);
     }
 }
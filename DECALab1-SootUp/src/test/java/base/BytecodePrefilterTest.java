@@ -0,0 +1,34 @@
+package base;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Optional;
+import org.junit.Test;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.JavaSootMethod;
+import target.exercise1.Misuse;
+import target.exercise1.MisuseIndirect;
+import target.exercise2.FileClosed;
+
+public class BytecodePrefilterTest extends TestSetup {
+
+	@Test
+	public void selectsOnlyMethodsUsingTrackedType() {
+		assertTrue(misusePrefilter.isRelevant(MisuseIndirect.class.getName()));
+		assertFalse(misusePrefilter.isRelevant(FileClosed.class.getName()));
+
+		Optional<JavaSootClass> clazz = view.getClass(view.getIdentifierFactory().getClassType(MisuseIndirect.class.getName()));
+		assertTrue(clazz.isPresent());
+		for (JavaSootMethod method : clazz.get().getMethods()) {
+			// the constructor is the only method of MisuseIndirect that does not create a cipher
+			assertTrue(method.getName(), misusePrefilter.isRelevant(method) != method.getName().equals("<init>"));
+		}
+	}
+
+	@Test
+	public void typestateSelectsFileUsers() {
+		assertTrue(typestatePrefilter.isRelevant(FileClosed.class.getName()));
+		assertFalse(typestatePrefilter.isRelevant(Misuse.class.getName()));
+	}
+}
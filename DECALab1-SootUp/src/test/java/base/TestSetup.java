@@ -1,13 +1,17 @@
 package base;
 
+import analysis.BytecodePrefilter;
 import analysis.FileStateFact;
 import analysis.VulnerabilityReporter;
 import java.io.File;
+import java.nio.file.Paths;
 import java.util.*;
 
 import analysis.exercise1.MisuseAnalysis;
+import analysis.exercise1.StringConstantPropagation;
 import analysis.exercise2.TypeStateAnalysis;
 import org.junit.Before;
+import org.junit.BeforeClass;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootMethod;
@@ -24,18 +28,32 @@ import javax.annotation.Nonnull;
 public abstract class TestSetup {
 
     protected JavaView view;
+    protected static BytecodePrefilter misusePrefilter;
+    protected static BytecodePrefilter typestatePrefilter;
     protected static VulnerabilityReporter reporter;
 
+    private static final String classPath = System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes";
+
+    @BeforeClass
+    public static void scanClassPath() {
+        // methods that never touch the tracked type are skipped before their bodies are built
+        misusePrefilter = new BytecodePrefilter(Collections.singleton(MisuseAnalysis.TRACKED_TYPE)).scan(Paths.get(classPath));
+        typestatePrefilter = new BytecodePrefilter(Collections.singleton(TypeStateAnalysis.TRACKED_TYPE)).scan(Paths.get(classPath));
+    }
+
     @Before
     final public void setUp() {
 
-        String classPath = System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes";
         AnalysisInputLocation inputLocation = new JavaClassPathAnalysisInputLocation(classPath);
         view = new JavaView(inputLocation);
 
     }
 
     public final void executeMisuseAnalysis(Class<?> clazz) {
+        executeMisuseAnalysis(clazz, new StringConstantPropagation());
+    }
+
+    public final void executeMisuseAnalysis(Class<?> clazz, StringConstantPropagation constants) {
 
         final ClassType classType = view.getIdentifierFactory().getClassType(clazz.getName());
 
@@ -46,8 +64,10 @@ public abstract class TestSetup {
 
         // iterate over all methods in that class
         for (JavaSootMethod method : classOpt.get().getMethods()) {
-            // System.out.println(method.getBody());
-            MisuseAnalysis analysis = new MisuseAnalysis( method, reporter);
+            if (!misusePrefilter.isRelevant(method)) {
+                continue;
+            }
+            MisuseAnalysis analysis = new MisuseAnalysis( method, reporter, constants);
             analysis.execute();
         }
 
@@ -65,7 +85,9 @@ public abstract class TestSetup {
 
         // iterate over all methods in that class
         for (JavaSootMethod method : classOpt.get().getMethods()) {
-            // System.out.println(method.getBody());
+            if (!typestatePrefilter.isRelevant(method)) {
+                continue;
+            }
             TypeStateAnalysis analysis = new TypeStateAnalysis(method, reporter);
             analysis.execute();
             outFacts.put( method, analysis.getStmtToAfterFlow());
@@ -0,0 +1,83 @@
+package base;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import analysis.trace.AsyncFileTraceSink;
+import analysis.trace.SamplingTraceSink;
+import analysis.trace.TraceSink;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+public class TraceSinkTest {
+
+	@Test
+	public void noneIsDisabled() {
+		assertFalse(TraceSink.NONE.isEnabled());
+	}
+
+	@Test
+	public void samplingForwardsEveryNthMessage() {
+		List<String> received = new ArrayList<>();
+		TraceSink collecting = new TraceSink() {
+			@Override
+			public boolean isEnabled() {
+				return true;
+			}
+
+			@Override
+			public void trace(String message) {
+				received.add(message);
+			}
+		};
+		TraceSink sampling = new SamplingTraceSink(collecting, 3);
+		for (int i = 0; i < 7; i++) {
+			if (sampling.isEnabled()) {
+				sampling.trace("m" + i);
+			}
+		}
+		assertEquals(Arrays.asList("m0", "m3", "m6"), received);
+	}
+
+	@Test
+	public void asyncFileSinkWritesAllMessagesOnClose() throws IOException {
+		Path file = Files.createTempFile("trace", ".log");
+		try {
+			AsyncFileTraceSink sink = new AsyncFileTraceSink(file);
+			for (int i = 0; i < 1000; i++) {
+				sink.trace("line " + i);
+			}
+			sink.close();
+			List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+			assertEquals(1000, lines.size());
+			assertEquals("line 999", lines.get(999));
+			assertEquals(0, sink.getDroppedCount());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void asyncFileSinkCountsMessagesAfterClose() throws IOException {
+		Path file = Files.createTempFile("trace", ".log");
+		try {
+			AsyncFileTraceSink sink = new AsyncFileTraceSink(file);
+			sink.trace("before");
+			sink.close();
+			assertFalse(sink.isEnabled());
+			sink.trace("after");
+			sink.trace("after");
+			assertEquals(Collections.singletonList("before"), Files.readAllLines(file, StandardCharsets.UTF_8));
+			assertEquals(2, sink.getDroppedCount());
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
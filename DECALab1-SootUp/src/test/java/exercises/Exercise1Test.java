@@ -1,12 +1,18 @@
 package exercises;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import analysis.VulnerabilityReporter;
+import analysis.report.JsonLinesFindingWriter;
+import analysis.trace.TraceSink;
+import java.io.StringWriter;
 
 import base.TestSetup;
 import org.junit.Test;
 import target.exercise1.Misuse;
+import target.exercise1.MisuseAliasedBuilder;
+import target.exercise1.MisuseIndirect;
 import target.exercise1.NoMisuse;
 
 public class Exercise1Test extends TestSetup {
@@ -28,5 +34,34 @@ public class Exercise1Test extends TestSetup {
 		executeMisuseAnalysis(NoMisuse.class);
 		assertEquals(0, reporter.getReportedVulnerabilities().size());
 	}
+
+	@Test
+	public void testMisuseIndirect() {
+		reporter = new VulnerabilityReporter();
+		executeMisuseAnalysis(MisuseIndirect.class);
+		assertEquals(2, reporter.getReportedVulnerabilities().size());
+	}
+
+	@Test
+	public void testMisuseAliasedBuilder() {
+		reporter = new VulnerabilityReporter();
+		executeMisuseAnalysis(MisuseAliasedBuilder.class);
+		assertEquals(1, reporter.getReportedVulnerabilities().size());
+		assertTrue(reporter.getReportedVulnerabilities().get(0).contains("appendThroughAlias"));
+	}
+
+	@Test
+	public void testMisuseStreamedAsJsonLines() {
+		StringWriter out = new StringWriter();
+		reporter = new VulnerabilityReporter(TraceSink.NONE, new JsonLinesFindingWriter(out));
+		executeMisuseAnalysis(Misuse.class);
+		executeMisuseAnalysis(Misuse.class);
+		// streamed findings are not retained, and the second run only produces duplicates
+		assertEquals(0, reporter.getReportedVulnerabilities().size());
+		assertEquals(1, reporter.getFindingCount());
+		String json = out.toString();
+		assertTrue(json, json.startsWith("{\"ruleId\":\"CIPHER_MISUSE\",\"method\":\"<target.exercise1.Misuse: void test()>\""));
+		assertEquals(1, json.split("\n").length);
+	}
 	
 }
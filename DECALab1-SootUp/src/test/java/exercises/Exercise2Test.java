@@ -21,6 +21,8 @@ import sootup.java.core.JavaSootClass;
 import sootup.java.core.JavaSootMethod;
 import target.exercise2.FileClosed;
 import target.exercise2.FileClosedAliasing;
+import target.exercise2.FileMaybeClosed;
+import target.exercise2.FileMaybeClosedAliasing;
 import target.exercise2.FileNotClosed;
 import target.exercise2.FileNotClosedAliasing;
 
@@ -169,4 +171,56 @@ public class Exercise2Test extends TestSetup {
         }
     }
 
+    @Test
+    public void testFileMaybeClosed() {
+        reporter = new VulnerabilityReporter();
+        Map<SootMethod, Map<Stmt, Set<FileStateFact>>> outFacts = executeTypestateAnalysis(FileMaybeClosed.class);
+        // only test1 can leave the file open
+        assertEquals(1, reporter.getReportedVulnerabilities().size());
+        int returns = 0;
+        for (SootMethod method : outFacts.keySet()) {
+            Map<Stmt, Set<FileStateFact>> result = outFacts.get(method);
+            for (Stmt stmt : result.keySet()) {
+                if (stmt instanceof JReturnVoidStmt) {
+                    // the paths are joined into one fact per file object
+                    assertEquals(result.get(stmt).toString(), 1, result.get(stmt).size());
+                    returns++;
+                }
+            }
+            if (method.getSignature().toString().equals("<target.exercise2.FileMaybeClosed: void test1(boolean)>")) {
+                for (Stmt stmt : result.keySet()) {
+                    if (stmt instanceof JReturnVoidStmt) {
+                        FileStateFact fact = result.get(stmt).iterator().next();
+                        assertEquals(FileStateFact.FileState.Open, fact.getState());
+                        assertTrue(fact.getStates().contains(FileStateFact.FileState.Close));
+                    }
+                }
+            }
+        }
+        assertEquals(2, returns);
+    }
+
+    @Test
+    public void testFileMaybeClosedAliasing() {
+        reporter = new VulnerabilityReporter();
+        Map<SootMethod, Map<Stmt, Set<FileStateFact>>> outFacts = executeTypestateAnalysis(FileMaybeClosedAliasing.class);
+        // in test1 alias points to file on one path only, so closing it does not close file
+        assertEquals(1, reporter.getReportedVulnerabilities().size());
+        for (SootMethod method : outFacts.keySet()) {
+            if (method.getSignature().toString().equals("<target.exercise2.FileMaybeClosedAliasing: void test1(boolean)>")) {
+                for (Stmt stmt : outFacts.get(method).keySet()) {
+                    if (stmt instanceof JReturnVoidStmt) {
+                        boolean containsOpen = false;
+                        for (FileStateFact f : outFacts.get(method).get(stmt)) {
+                            if (f.containsAlias("file")) {
+                                containsOpen = f.getState() == FileStateFact.FileState.Open;
+                            }
+                        }
+                        assertTrue(containsOpen);
+                    }
+                }
+            }
+        }
+    }
+
 }
@@ -6,6 +6,7 @@ import static org.junit.Assert.assertEquals;
 import org.junit.Test;
 
 import analysis.VulnerabilityReporter;
+import analysis.exercise1.StringConstantPropagation;
 import base.TestSetup;
 import target.exercise3.BreakMisuseAnalysis;
 
@@ -18,4 +19,11 @@ public class Exercise3aTest extends TestSetup {
 		executeMisuseAnalysis(BreakMisuseAnalysis.class);
 		assertEquals(0, reporter.getReportedVulnerabilities().size());
 	}
+
+	@Test
+	public void testBreakMisuseAnalysisWithFieldSummaries() {
+		reporter = new VulnerabilityReporter();
+		executeMisuseAnalysis(BreakMisuseAnalysis.class, new StringConstantPropagation(view));
+		assertEquals(1, reporter.getReportedVulnerabilities().size());
+	}
 }
@@ -0,0 +1,29 @@
+package target.exercise1;
+
+import java.security.NoSuchAlgorithmException;
+
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+
+public class MisuseAliasedBuilder {
+
+	/**
+	 * Misuse: the builder is changed to "AES/GCM/PKCS5Padding/ECB" through an alias
+	 */
+	public Cipher appendThroughAlias() throws NoSuchAlgorithmException, NoSuchPaddingException {
+		StringBuilder transformation = new StringBuilder("AES/GCM/PKCS5Padding");
+		StringBuilder alias = transformation;
+		alias.append("/ECB");
+		return Cipher.getInstance(transformation.toString());
+	}
+
+	/**
+	 * No misuse: the builder is completed to "AES/GCM/PKCS5Padding" through an alias
+	 */
+	public Cipher completeThroughAlias() throws NoSuchAlgorithmException, NoSuchPaddingException {
+		StringBuilder transformation = new StringBuilder("AES");
+		StringBuilder alias = transformation;
+		alias.append("/GCM").append("/PKCS5Padding");
+		return Cipher.getInstance(transformation.toString());
+	}
+}
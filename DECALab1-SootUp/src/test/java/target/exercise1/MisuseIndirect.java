@@ -0,0 +1,36 @@
+package target.exercise1;
+
+import java.security.NoSuchAlgorithmException;
+
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+
+public class MisuseIndirect {
+
+	/**
+	 * Misuse: the insecure transformation is stored in a local before the call
+	 */
+	public Cipher local() throws NoSuchAlgorithmException, NoSuchPaddingException {
+		String transformation = "AES";
+		return Cipher.getInstance(transformation);
+	}
+
+	/**
+	 * Misuse: "AES/ECB/PKCS5Padding" is assembled from parts
+	 */
+	public Cipher concatenated() throws NoSuchAlgorithmException, NoSuchPaddingException {
+		String algorithm = "AES";
+		String mode = "/ECB/PKCS5Padding";
+		return Cipher.getInstance(algorithm + mode);
+	}
+
+	/**
+	 * No misuse: the assembled transformation is the secure one
+	 */
+	public Cipher concatenatedSecure() throws NoSuchAlgorithmException, NoSuchPaddingException {
+		StringBuilder transformation = new StringBuilder("AES");
+		transformation.append("/GCM");
+		transformation.append("/PKCS5Padding");
+		return Cipher.getInstance(transformation.toString());
+	}
+}
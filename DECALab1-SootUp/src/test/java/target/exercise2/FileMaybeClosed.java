@@ -0,0 +1,22 @@
+package target.exercise2;
+
+public class FileMaybeClosed {
+
+	public void test1(boolean close) {
+		File file = new File();
+		file.open();
+		if (close) {
+			file.close();
+		}
+	}
+
+	public void test2(int n) {
+		File file = new File();
+		for (int i = 0; i < n; i++) {
+			file.open();
+			File alias = file;
+			alias.close();
+		}
+	}
+
+}
@@ -0,0 +1,31 @@
+package target.exercise2;
+
+public class FileMaybeClosedAliasing {
+
+	public void test1(boolean same) {
+		File file = new File();
+		file.open();
+		File alias;
+		if (same) {
+			alias = file;
+		} else {
+			alias = new File();
+		}
+		// closes file only on the first path
+		alias.close();
+	}
+
+	public void test2(boolean flag) {
+		File file = new File();
+		file.open();
+		File alias;
+		if (flag) {
+			alias = file;
+		} else {
+			alias = file;
+			alias.open();
+		}
+		alias.close();
+	}
+
+}
@@ -0,0 +1,115 @@
+package test.benchmark;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes and compiles synthetic servlets for the benchmarks. Each servlet reads a request parameter, moves it through
+ * a chain of fields, passes it down a chain of helper methods that each build a string with a {@code StringBuilder},
+ * and calls a number of SQL sinks, every other one with the tainted query.
+ */
+public class ServletGenerator {
+
+    public static final String PACKAGE = "generated";
+
+    private final int callDepth;
+    private final int fields;
+    private final int builderChain;
+    private final int sinks;
+
+    /**
+     * @param callDepth    helper methods between the source and the sinks
+     * @param fields       fields of a holder object that the taint is copied through
+     * @param builderChain {@code append} calls per helper method
+     * @param sinks        sink calls per servlet, half of them reached by the taint
+     */
+    public ServletGenerator(int callDepth, int fields, int builderChain, int sinks) {
+        this.callDepth = callDepth;
+        this.fields = fields;
+        this.builderChain = builderChain;
+        this.sinks = sinks;
+    }
+
+    /**
+     * Compiles {@code count} servlets into {@code classesDir}. The servlets use the request type of the test targets,
+     * so the test classes must be on the class path of the running JVM.
+     */
+    public void compile(int count, Path classesDir) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("The benchmarks generate their workload and need a JDK, not a JRE");
+        }
+        Path sourceDir = Files.createDirectories(classesDir.resolve("src").resolve(PACKAGE));
+        List<String> args = new ArrayList<>(Arrays.asList("-source", "1.8", "-target", "1.8", "-nowarn", "-Xlint:-options",
+                "-d", classesDir.toString(), "-classpath", System.getProperty("java.class.path")));
+        for (int i = 0; i < count; i++) {
+            String name = "Servlet" + i;
+            Path source = sourceDir.resolve(name + ".java");
+            Files.write(source, generate(name).getBytes(StandardCharsets.UTF_8));
+            args.add(source.toString());
+        }
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        if (compiler.run(null, null, errors, args.toArray(new String[0])) != 0) {
+            throw new IllegalStateException("Could not compile the generated servlets:\n" + errors);
+        }
+    }
+
+    String generate(String name) {
+        StringBuilder src = new StringBuilder();
+        src.append("package ").append(PACKAGE).append(";\n\n")
+                .append("import target.exercise1.HttpServletRequest;\n\n")
+                .append("import java.sql.Connection;\n")
+                .append("import java.sql.DriverManager;\n")
+                .append("import java.sql.Statement;\n\n")
+                .append("public class ").append(name).append(" {\n\n");
+
+        src.append("    static class Holder {\n");
+        for (int f = 0; f < fields; f++) {
+            src.append("        String f").append(f).append(";\n");
+        }
+        src.append("    }\n\n");
+
+        src.append("    public void doGet(HttpServletRequest request) {\n")
+                .append("        String input = request.getParameter(\"id\");\n");
+        String value = "input";
+        if (fields > 0) {
+            src.append("        Holder holder = new Holder();\n")
+                    .append("        holder.f0 = input;\n");
+            for (int f = 1; f < fields; f++) {
+                src.append("        holder.f").append(f).append(" = holder.f").append(f - 1).append(";\n");
+            }
+            value = "holder.f" + (fields - 1);
+        }
+        src.append("        String query = ").append(callDepth > 0 ? "pass0(" + value + ")" : value).append(";\n")
+                .append("        try {\n")
+                .append("            Connection conn = DriverManager.getConnection(\"url\", \"userName\", \"password\");\n")
+                .append("            Statement st = conn.createStatement();\n");
+        for (int s = 0; s < sinks; s++) {
+            src.append("            st.executeQuery(").append(s % 2 == 0 ? "query" : "\"SELECT * FROM User where userId=" + s + "\"").append(");\n");
+        }
+        src.append("        } catch (Exception e) {\n")
+                .append("            System.out.println(\"Something went wrong\");\n")
+                .append("        }\n")
+                .append("    }\n");
+
+        for (int d = 0; d < callDepth; d++) {
+            src.append("\n    private String pass").append(d).append("(String value) {\n")
+                    .append("        StringBuilder builder = new StringBuilder();\n");
+            for (int b = 0; b < builderChain; b++) {
+                src.append("        builder.append(").append(b % 2 == 0 ? "value" : "\"" + b + "\"").append(");\n");
+            }
+            String built = builderChain > 0 ? "builder.toString()" : "value";
+            src.append("        return ").append(d + 1 < callDepth ? "pass" + (d + 1) + "(" + built + ")" : built).append(";\n")
+                    .append("    }\n");
+        }
+        return src.append("}\n").toString();
+    }
+}
@@ -0,0 +1,181 @@
+package test.benchmark;
+
+import analysis.TaintAnalysisFlowFunctions;
+import analysis.TaintAnalysisRunner;
+import analysis.VulnerabilityReporter;
+import analysis.exercise.Exercise1FlowFunctions;
+import analysis.exercise.Exercise2FlowFunctions;
+import analysis.exercise.Exercise3FlowFunctions;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import sootup.core.signatures.MethodSignature;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end throughput of the taint analysis, ICFG construction included, over generated servlets, see
+ * {@link ServletGenerator}, with 1 to 8 solver threads. Besides solves per second, it reports the solver's
+ * propagations per second, the number of (statement, fact) pairs a solve reaches and the most facts at a single
+ * statement.
+ * {@link #main} adds the GC profiler, whose {@code gc.alloc.rate.norm} is the allocation per solve.
+ * <p>
+ * The JMH dependencies and this source folder are only part of the {@code benchmark} profile. Run it from the
+ * project directory:
+ * <pre>
+ * mvn -Pbenchmark test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/classes:target/test-classes:$(cat cp.txt) test.benchmark.TaintAnalysisBenchmark [JMH options]
+ * </pre>
+ * e.g. {@code -p flowFunctions=Exercise3 -p callDepth=8 -p threads=1} to pick one variant, workload and thread
+ * count. {@code Exercise2Global} is the field-based variant with the global field taint table.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaintAnalysisBenchmark {
+
+    @Param({"Exercise1", "Exercise2", "Exercise2Global", "Exercise3"})
+    public String flowFunctions;
+
+    @Param({"1", "4"})
+    public int callDepth;
+
+    @Param({"0", "4"})
+    public int fields;
+
+    @Param({"2", "8"})
+    public int builderChain;
+
+    @Param({"2", "8"})
+    public int sinks;
+
+    @Param("20")
+    public int servlets;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private Path classesDir;
+    private JavaView view;
+    private List<MethodSignature> entryPoints;
+
+    /**
+     * Propagations of the measured solves, reported per second.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long propagations;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            propagations = 0;
+        }
+    }
+
+    /**
+     * The size of the problem: the (statement, fact) pairs one solve reaches and the most facts at one statement.
+     * Both are counted once per trial, outside of the measurement, and are the same in every iteration; JMH adds the
+     * iterations up in its summary, so read them off an iteration.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Reach {
+        public long facts;
+        public long peakFacts;
+        private long reachedFacts;
+        private long reachedPeak;
+
+        @Setup(Level.Trial)
+        public void count(TaintAnalysisBenchmark benchmark) {
+            TaintAnalysisRunner.Result result = benchmark.createRunner().setRecordFacts(true)
+                    .run(benchmark.createFlowFunctions(), benchmark.entryPoints);
+            reachedFacts = result.getResultStore().pairCount();
+            reachedPeak = result.getResultStore().peakFactCount();
+        }
+
+        // JMH resets the counters before each iteration, so every solve sets them again
+        void report() {
+            facts = reachedFacts;
+            peakFacts = reachedPeak;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        classesDir = Files.createTempDirectory("taint-benchmark");
+        new ServletGenerator(callDepth, fields, builderChain, sinks).compile(servlets, classesDir);
+        view = new JavaView(new JavaClassPathAnalysisInputLocation(classesDir.toString()));
+        entryPoints = new TaintAnalysisRunner(view).findEntryPoints();
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(classesDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private TaintAnalysisRunner createRunner() {
+        return new TaintAnalysisRunner(view).setNumThreads(threads).setGlobalFieldTaint(flowFunctions.equals("Exercise2Global"));
+    }
+
+    private TaintAnalysisFlowFunctions createFlowFunctions() {
+        VulnerabilityReporter reporter = new VulnerabilityReporter();
+        switch (flowFunctions) {
+            case "Exercise1":
+                return new Exercise1FlowFunctions(reporter);
+            case "Exercise2":
+            case "Exercise2Global":
+                return new Exercise2FlowFunctions(reporter);
+            case "Exercise3":
+                return new Exercise3FlowFunctions(reporter);
+            default:
+                throw new IllegalArgumentException("Unknown flow functions " + flowFunctions);
+        }
+    }
+
+    @Benchmark
+    public TaintAnalysisRunner.Result solve(Counters counters, Reach reach) {
+        TaintAnalysisRunner.Result result = createRunner().run(createFlowFunctions(), entryPoints);
+        counters.propagations += result.getPropagations();
+        reach.report();
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(TaintAnalysisBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
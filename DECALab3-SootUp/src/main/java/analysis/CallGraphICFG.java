@@ -0,0 +1,246 @@
+package analysis;
+
+import heros.InterproceduralCFG;
+import sootup.callgraph.CallGraph;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JSpecialInvokeExpr;
+import sootup.core.jimple.common.expr.JStaticInvokeExpr;
+import sootup.core.jimple.common.stmt.BranchingStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * ICFG over the methods that a supplied call graph reaches from a list of entry points. The call graph only has to
+ * answer which methods a method calls, so a {@link CallGraph} of SootUp as well as any other call graph can back it,
+ * e.g. {@code new CallGraphICFG(view, entryPoints, cg::edgesOutOf)}. At a call statement, the callees are the
+ * targets of the calling method that match the invoked method: by signature for static and special invokes, by
+ * subsignature for virtual and interface invokes.
+ * <p>
+ * Owners, successors, predecessors, callees, callers, start points and return sites are all computed in the
+ * constructor, so lookups are map accesses and concurrent solver threads only read.
+ */
+public class CallGraphICFG implements InterproceduralCFG<Stmt, SootMethod> {
+
+    protected final View view;
+    private final Function<MethodSignature, ? extends Collection<MethodSignature>> calleesOf;
+    private final List<MethodSignature> entryPoints;
+
+    private final Map<Stmt, SootMethod> stmtToMethod = new HashMap<>();
+    private final Map<Stmt, List<Stmt>> succs = new HashMap<>();
+    private final Map<Stmt, List<Stmt>> preds = new HashMap<>();
+    private final Map<Stmt, Collection<SootMethod>> stmtToCallees = new HashMap<>();
+    private final Map<SootMethod, Collection<Stmt>> methodToCallers = new HashMap<>();
+    private final Map<SootMethod, Set<Stmt>> callsFromWithin = new HashMap<>();
+    private final Map<SootMethod, Collection<Stmt>> startPoints = new HashMap<>();
+    private final Set<Stmt> startPointSet = new HashSet<>();
+    private final Set<Stmt> exitStmts = new HashSet<>();
+    private final Set<Stmt> nonCallStartNodes = new HashSet<>();
+    private final Map<MethodSignature, Set<MethodSignature>> methodToEntryPoints = new HashMap<>();
+
+    public CallGraphICFG(View view, List<MethodSignature> entryPoints, CallGraph callGraph) {
+        this(view, entryPoints, callGraph::callsFrom);
+    }
+
+    /**
+     * @param calleesOf the methods called by a method, according to the call graph
+     */
+    public CallGraphICFG(View view, List<MethodSignature> entryPoints, Function<MethodSignature, ? extends Collection<MethodSignature>> calleesOf) {
+        this.view = view;
+        this.calleesOf = calleesOf;
+        this.entryPoints = new ArrayList<>(entryPoints);
+        for (MethodSignature entryPoint : entryPoints) {
+            Optional<? extends SootMethod> method = view.getMethod(entryPoint);
+            if (method.isPresent() && method.get().hasBody()) {
+                explore(method.get(), entryPoint);
+            }
+        }
+    }
+
+    /**
+     * Walks the methods reachable from one entry point. Bodies are only processed the first time they are reached.
+     */
+    private void explore(SootMethod entryMethod, MethodSignature entryPoint) {
+        Set<SootMethod> visited = new HashSet<>();
+        Deque<SootMethod> worklist = new ArrayDeque<>();
+        worklist.add(entryMethod);
+        while (!worklist.isEmpty()) {
+            SootMethod method = worklist.poll();
+            if (!visited.add(method)) {
+                continue;
+            }
+            methodToEntryPoints.computeIfAbsent(method.getSignature(), m -> new LinkedHashSet<>()).add(entryPoint);
+            if (!callsFromWithin.containsKey(method)) {
+                initialize(method);
+            }
+            for (Stmt callSite : callsFromWithin.get(method)) {
+                worklist.addAll(stmtToCallees.get(callSite));
+            }
+        }
+    }
+
+    private void initialize(SootMethod method) {
+        StmtGraph<?> graph = method.getBody().getStmtGraph();
+        Set<Stmt> calls = new LinkedHashSet<>();
+        Collection<MethodSignature> targets = null;
+        for (Stmt stmt : graph.getNodes()) {
+            stmtToMethod.put(stmt, method);
+            succs.put(stmt, graph.successors(stmt));
+            preds.put(stmt, graph.predecessors(stmt));
+            if (stmt.containsInvokeExpr()) {
+                if (targets == null) {
+                    targets = calleesOf.apply(method.getSignature());
+                }
+                calls.add(stmt);
+                stmtToCallees.put(stmt, resolve(stmt, targets));
+            }
+        }
+        callsFromWithin.put(method, Collections.unmodifiableSet(calls));
+        Collection<Stmt> starts = graph.getEntrypoints();
+        startPoints.put(method, starts);
+        startPointSet.addAll(starts);
+        exitStmts.addAll(graph.getTails());
+        for (Stmt stmt : graph.getNodes()) {
+            if (!calls.contains(stmt) && !startPointSet.contains(stmt)) {
+                nonCallStartNodes.add(stmt);
+            }
+        }
+    }
+
+    /**
+     * @param targets the methods the caller of {@code callSite} calls anywhere
+     * @return the callees of the call statement that have a body
+     */
+    protected Collection<SootMethod> resolve(Stmt callSite, Collection<MethodSignature> targets) {
+        AbstractInvokeExpr invokeExpr = callSite.getInvokeExpr();
+        MethodSignature invoked = invokeExpr.getMethodSignature();
+        boolean exact = invokeExpr instanceof JStaticInvokeExpr || invokeExpr instanceof JSpecialInvokeExpr;
+        List<SootMethod> callees = new ArrayList<>();
+        for (MethodSignature target : targets) {
+            if (exact ? !target.equals(invoked) : !target.getSubSignature().equals(invoked.getSubSignature())) {
+                continue;
+            }
+            Optional<? extends SootMethod> callee = view.getMethod(target);
+            if (callee.isPresent() && callee.get().hasBody()) {
+                callees.add(callee.get());
+                methodToCallers.computeIfAbsent(callee.get(), c -> new ArrayList<>()).add(callSite);
+            }
+        }
+        return callees.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(callees);
+    }
+
+    public List<MethodSignature> getEntryPoints() {
+        return Collections.unmodifiableList(entryPoints);
+    }
+
+    /**
+     * @return the entry points from which {@code method} is reachable, empty if it is not part of this ICFG
+     */
+    public Set<MethodSignature> getEntryPointsReaching(MethodSignature method) {
+        Set<MethodSignature> reaching = methodToEntryPoints.get(method);
+        return reaching == null ? Collections.emptySet() : Collections.unmodifiableSet(reaching);
+    }
+
+    /**
+     * @return all methods reachable from at least one entry point
+     */
+    public Set<MethodSignature> getReachableMethods() {
+        return Collections.unmodifiableSet(methodToEntryPoints.keySet());
+    }
+
+    @Override
+    public SootMethod getMethodOf(Stmt n) {
+        return stmtToMethod.get(n);
+    }
+
+    @Override
+    public List<Stmt> getPredsOf(Stmt n) {
+        List<Stmt> p = preds.get(n);
+        return p == null ? Collections.emptyList() : p;
+    }
+
+    @Override
+    public List<Stmt> getSuccsOf(Stmt n) {
+        List<Stmt> s = succs.get(n);
+        return s == null ? Collections.emptyList() : s;
+    }
+
+    @Override
+    public Collection<SootMethod> getCalleesOfCallAt(Stmt n) {
+        Collection<SootMethod> callees = stmtToCallees.get(n);
+        return callees == null ? Collections.emptyList() : callees;
+    }
+
+    @Override
+    public Collection<Stmt> getCallersOf(SootMethod m) {
+        Collection<Stmt> callers = methodToCallers.get(m);
+        return callers == null ? Collections.emptyList() : callers;
+    }
+
+    @Override
+    public Set<Stmt> getCallsFromWithin(SootMethod m) {
+        Set<Stmt> calls = callsFromWithin.get(m);
+        return calls == null ? Collections.emptySet() : calls;
+    }
+
+    @Override
+    public Collection<Stmt> getStartPointsOf(SootMethod m) {
+        Collection<Stmt> starts = startPoints.get(m);
+        return starts == null ? Collections.emptySet() : starts;
+    }
+
+    @Override
+    public Collection<Stmt> getReturnSitesOfCallAt(Stmt n) {
+        return getSuccsOf(n);
+    }
+
+    @Override
+    public boolean isCallStmt(Stmt stmt) {
+        return stmtToCallees.containsKey(stmt);
+    }
+
+    @Override
+    public boolean isExitStmt(Stmt stmt) {
+        return exitStmts.contains(stmt);
+    }
+
+    @Override
+    public boolean isStartPoint(Stmt stmt) {
+        return startPointSet.contains(stmt);
+    }
+
+    @Override
+    public Set<Stmt> allNonCallStartNodes() {
+        return Collections.unmodifiableSet(nonCallStartNodes);
+    }
+
+    @Override
+    public boolean isFallThroughSuccessor(Stmt stmt, Stmt succ) {
+        List<Stmt> s = getSuccsOf(stmt);
+        return stmt.fallsThrough() && !s.isEmpty() && s.get(0) == succ;
+    }
+
+    @Override
+    public boolean isBranchTarget(Stmt stmt, Stmt succ) {
+        if (!stmt.branches() || !(stmt instanceof BranchingStmt)) {
+            return false;
+        }
+        return stmtToMethod.get(stmt).getBody().getStmtGraph().getBranchTargetsOf((BranchingStmt) stmt).contains(succ);
+    }
+}
@@ -0,0 +1,80 @@
+package analysis;
+
+import analysis.fact.DataFlowFact;
+import heros.FlowFunction;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorator that counts how often the solver applies a flow function, per kind and per method of the statement the
+ * flow function belongs to. It is only put in place when solver statistics are collected.
+ */
+public class CountingFlowFunctions extends ForwardingFlowFunctions {
+
+    public enum Kind {
+        NORMAL, CALL, RETURN, CALL_TO_RETURN
+    }
+
+    private final Map<Kind, LongAdder> applications = new EnumMap<>(Kind.class);
+    private final Map<SootMethod, LongAdder> applicationsPerMethod = new ConcurrentHashMap<>();
+
+    public CountingFlowFunctions(TaintAnalysisFlowFunctions delegate) {
+        super(delegate);
+        for (Kind kind : Kind.values()) {
+            applications.put(kind, new LongAdder());
+        }
+    }
+
+    public long getApplications(Kind kind) {
+        return applications.get(kind).sum();
+    }
+
+    /**
+     * @return the flow function applications at the statements of each method
+     */
+    public Map<SootMethod, Long> getApplicationsPerMethod() {
+        Map<SootMethod, Long> counts = new HashMap<>();
+        for (Map.Entry<SootMethod, LongAdder> e : applicationsPerMethod.entrySet()) {
+            counts.put(e.getKey(), e.getValue().sum());
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getNormalFlowFunction(Stmt curr, Stmt succ) {
+        return counted(delegate.getNormalFlowFunction(curr, succ), Kind.NORMAL, curr);
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getCallFlowFunction(Stmt callStmt, SootMethod destinationMethod) {
+        return counted(delegate.getCallFlowFunction(callStmt, destinationMethod), Kind.CALL, callStmt);
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getReturnFlowFunction(Stmt callSite, SootMethod calleeMethod, Stmt exitStmt, Stmt returnSite) {
+        return counted(delegate.getReturnFlowFunction(callSite, calleeMethod, exitStmt, returnSite), Kind.RETURN, exitStmt);
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getCallToReturnFlowFunction(Stmt callSite, Stmt returnSite) {
+        return counted(delegate.getCallToReturnFlowFunction(callSite, returnSite), Kind.CALL_TO_RETURN, callSite);
+    }
+
+    private FlowFunction<DataFlowFact> counted(FlowFunction<DataFlowFact> function, Kind kind, Stmt stmt) {
+        // looked up once per flow function, which the solver's flow-function cache creates once per statement
+        LongAdder perKind = applications.get(kind);
+        LongAdder perMethod = applicationsPerMethod.computeIfAbsent(icfg.getMethodOf(stmt), m -> new LongAdder());
+        return fact -> {
+            perKind.increment();
+            perMethod.increment();
+            return function.computeTargets(fact);
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package analysis;
+
+import analysis.fact.DataFlowFact;
+import analysis.fieldbased.FieldTaintTable;
+import analysis.model.TaintModel;
+import analysis.path.PathTracker;
+import analysis.trace.TraceSink;
+import heros.FlowFunction;
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+/**
+ * Base class of the decorators around {@link TaintAnalysisFlowFunctions}. Every setter is applied to this object as
+ * well as to the delegate, and everything else is handed on to the delegate, so that a decorator only overrides the
+ * flow functions it changes.
+ */
+public abstract class ForwardingFlowFunctions extends TaintAnalysisFlowFunctions {
+
+    protected final TaintAnalysisFlowFunctions delegate;
+
+    protected ForwardingFlowFunctions(TaintAnalysisFlowFunctions delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void setICFG(InterproceduralCFG<Stmt, SootMethod> icfg) {
+        super.setICFG(icfg);
+        delegate.setICFG(icfg);
+    }
+
+    @Override
+    public void setTraceSink(TraceSink trace) {
+        super.setTraceSink(trace);
+        delegate.setTraceSink(trace);
+    }
+
+    @Override
+    public TaintModel getTaintModel() {
+        return delegate.getTaintModel();
+    }
+
+    @Override
+    public void setTaintModel(TaintModel model) {
+        super.setTaintModel(model);
+        delegate.setTaintModel(model);
+    }
+
+    @Override
+    public void setPathTracker(PathTracker paths) {
+        super.setPathTracker(paths);
+        delegate.setPathTracker(paths);
+    }
+
+    @Override
+    public void setFieldTaintTable(FieldTaintTable fieldTaint) {
+        super.setFieldTaintTable(fieldTaint);
+        delegate.setFieldTaintTable(fieldTaint);
+    }
+
+    @Override
+    public boolean isSummarized(SootMethod callee) {
+        return delegate.isSummarized(callee);
+    }
+
+    @Override
+    public long fingerprint() {
+        return delegate.fingerprint();
+    }
+
+    @Override
+    protected StmtClassification classify(Stmt stmt) {
+        return delegate.classify(stmt);
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getNormalFlowFunction(Stmt curr, Stmt succ) {
+        return delegate.getNormalFlowFunction(curr, succ);
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getCallFlowFunction(Stmt callStmt, SootMethod destinationMethod) {
+        return delegate.getCallFlowFunction(callStmt, destinationMethod);
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getReturnFlowFunction(Stmt callSite, SootMethod calleeMethod, Stmt exitStmt, Stmt returnSite) {
+        return delegate.getReturnFlowFunction(callSite, calleeMethod, exitStmt, returnSite);
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getCallToReturnFlowFunction(Stmt callSite, Stmt returnSite) {
+        return delegate.getCallToReturnFlowFunction(callSite, returnSite);
+    }
+}
@@ -1,6 +1,7 @@
 package analysis;
 
 import analysis.fact.DataFlowFact;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import heros.InterproceduralCFG;
 import sootup.analysis.interprocedural.ifds.DefaultJimpleIFDSTabulationProblem;
@@ -16,14 +17,22 @@ import java.util.Set;
 
 public class IFDSTaintAnalysisProblem extends DefaultJimpleIFDSTabulationProblem<DataFlowFact, InterproceduralCFG<Stmt, SootMethod>> {
 
+    /**
+     * Names of the servlet methods that handle requests. Every entry point with one of these names is seeded.
+     */
+    public static final Set<String> HANDLER_NAMES = ImmutableSet.of("doGet", "doPost", "doPut", "doDelete", "service");
+
     private final TaintAnalysisFlowFunctions flowFunctions;
 
     private final List<MethodSignature> entryPoints;
 
     protected final View view;
 
+    private int numThreads = super.numThreads();
+
     public IFDSTaintAnalysisProblem(InterproceduralCFG<Stmt, SootMethod> icfg, TaintAnalysisFlowFunctions flowFunctions, List<MethodSignature> entryPoints, View view) {
-        super(icfg);
+        // calls into summarized methods are only handled at the call-to-return edge
+        super(new SummarizingICFG(icfg, flowFunctions::isSummarized));
         this.flowFunctions = flowFunctions;
         this.entryPoints = entryPoints;
         this.view = view;
@@ -38,13 +47,17 @@ public class IFDSTaintAnalysisProblem extends DefaultJimpleIFDSTabulationProblem
             if (!m.hasBody()) {
                 continue;
             }
-            if (m.getName().equals("doGet")) {
+            if (isHandler(m)) {
                 res.put(m.getBody().getStmtGraph().getStartingStmt(), Collections.singleton(zeroValue()));
             }
         }
         return res;
     }
 
+    public static boolean isHandler(SootMethod method) {
+        return method.hasBody() && HANDLER_NAMES.contains(method.getName());
+    }
+
     @Override
     protected TaintAnalysisFlowFunctions createFlowFunctionsFactory() {
         return flowFunctions;
@@ -55,6 +68,18 @@ public class IFDSTaintAnalysisProblem extends DefaultJimpleIFDSTabulationProblem
         return DataFlowFact.getZeroInstance();
     }
 
+    /**
+     * @param numThreads number of solver threads, by default one per available processor
+     */
+    public void setNumThreads(int numThreads) {
+        this.numThreads = numThreads;
+    }
+
+    @Override
+    public int numThreads() {
+        return numThreads;
+    }
+
     @Override
     public boolean autoAddZero() {
         return true;
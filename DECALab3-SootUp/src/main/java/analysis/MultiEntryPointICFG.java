@@ -0,0 +1,27 @@
+package analysis;
+
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ICFG over everything reachable from several entry points, built once and shared by all of them.
+ * Like {@link sootup.analysis.interprocedural.icfg.JimpleBasedInterproceduralCFG}, a call resolves to the
+ * method named by its signature, so no call graph needs to be built up front.
+ */
+public class MultiEntryPointICFG extends CallGraphICFG {
+
+    public MultiEntryPointICFG(View view, List<MethodSignature> entryPoints) {
+        super(view, entryPoints, method -> Collections.emptySet());
+    }
+
+    @Override
+    protected Collection<SootMethod> resolve(Stmt callSite, Collection<MethodSignature> targets) {
+        return super.resolve(callSite, Collections.singletonList(callSite.getInvokeExpr().getMethodSignature()));
+    }
+}
@@ -0,0 +1,55 @@
+package analysis;
+
+import analysis.fact.DataFlowFact;
+import analysis.path.PathTracker;
+import heros.FlowFunction;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Decorator that records in a {@link PathTracker} which fact each computed fact was derived from. It is only put in
+ * place when path tracking is switched on, so bulk scans do not pay for it.
+ */
+public class PathTrackingFlowFunctions extends ForwardingFlowFunctions {
+
+    public PathTrackingFlowFunctions(TaintAnalysisFlowFunctions delegate, PathTracker paths) {
+        super(delegate);
+        setPathTracker(paths);
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getNormalFlowFunction(Stmt curr, Stmt succ) {
+        return tracked(delegate.getNormalFlowFunction(curr, succ), curr, Collections.singletonList(succ));
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getCallFlowFunction(Stmt callStmt, SootMethod destinationMethod) {
+        return tracked(delegate.getCallFlowFunction(callStmt, destinationMethod), callStmt, icfg.getStartPointsOf(destinationMethod));
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getReturnFlowFunction(Stmt callSite, SootMethod calleeMethod, Stmt exitStmt, Stmt returnSite) {
+        return tracked(delegate.getReturnFlowFunction(callSite, calleeMethod, exitStmt, returnSite), exitStmt, Collections.singletonList(returnSite));
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getCallToReturnFlowFunction(Stmt callSite, Stmt returnSite) {
+        return tracked(delegate.getCallToReturnFlowFunction(callSite, returnSite), callSite, Collections.singletonList(returnSite));
+    }
+
+    private FlowFunction<DataFlowFact> tracked(FlowFunction<DataFlowFact> function, Stmt from, Collection<Stmt> targets) {
+        return fact -> {
+            Set<DataFlowFact> out = function.computeTargets(fact);
+            for (DataFlowFact target : out) {
+                for (Stmt to : targets) {
+                    paths.record(from, fact, to, target);
+                }
+            }
+            return out;
+        };
+    }
+}
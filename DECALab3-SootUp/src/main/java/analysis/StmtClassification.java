@@ -0,0 +1,241 @@
+package analysis;
+
+import analysis.fact.DataFlowFact;
+import analysis.model.TaintModel;
+import analysis.model.TaintRule;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.expr.AbstractInstanceInvokeExpr;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What the taint flow functions need to know about a statement. It is computed once per statement,
+ * see {@link TaintAnalysisFlowFunctions#classify(Stmt)}, instead of on every application to a fact.
+ */
+public final class StmtClassification {
+
+    private final Value leftOp;
+    private final Value rightOp;
+    private final AbstractInvokeExpr invokeExpr;
+    private final Value invokeBase;
+    private final List<TaintRule> rules;
+    private final List<Value> sourceTargets = new ArrayList<>();
+    private final Set<DataFlowFact> sourceFacts;
+    private final List<Value> sinkArguments = new ArrayList<>();
+    // category of the sink rule of each sink argument
+    private final List<String> sinkCategories = new ArrayList<>();
+    private final List<Value> sanitized = new ArrayList<>();
+    // pairs of (from, to) values of all propagator rules
+    private final List<Value[]> propagations = new ArrayList<>();
+
+    StmtClassification(Stmt stmt, TaintModel model) {
+        if (stmt instanceof JAssignStmt) {
+            leftOp = ((JAssignStmt) stmt).getLeftOp();
+            rightOp = ((JAssignStmt) stmt).getRightOp();
+        } else {
+            leftOp = null;
+            rightOp = null;
+        }
+        invokeExpr = stmt.containsInvokeExpr() ? stmt.getInvokeExpr() : null;
+        invokeBase = invokeExpr instanceof AbstractInstanceInvokeExpr ? ((AbstractInstanceInvokeExpr) invokeExpr).getBase() : null;
+        rules = invokeExpr == null ? Collections.emptyList() : model.getRules(invokeExpr.getMethodSignature());
+
+        for (TaintRule rule : rules) {
+            switch (rule.getKind()) {
+                case SOURCE:
+                    addResolved(rule.getTo(), sourceTargets);
+                    break;
+                case SINK:
+                    for (String from : rule.getFrom()) {
+                        Value value = resolve(from);
+                        if (value != null) {
+                            sinkArguments.add(value);
+                            sinkCategories.add(rule.getCategory());
+                        }
+                    }
+                    break;
+                case SANITIZER:
+                    addResolved(rule.getTo(), sanitized);
+                    break;
+                case PROPAGATOR:
+                    for (String from : rule.getFrom()) {
+                        for (String to : rule.getTo()) {
+                            Value fromValue = resolve(from);
+                            Value toValue = resolve(to);
+                            if (fromValue != null && toValue != null) {
+                                propagations.add(new Value[]{fromValue, toValue});
+                            }
+                        }
+                    }
+                    break;
+            }
+        }
+        Set<DataFlowFact> facts = new HashSet<>();
+        for (Value target : sourceTargets) {
+            if (target instanceof Local) {
+                facts.add(DataFlowFact.of((Local) target));
+            }
+        }
+        sourceFacts = facts.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(facts);
+    }
+
+    private void addResolved(List<String> positions, List<Value> values) {
+        for (String position : positions) {
+            Value value = resolve(position);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+    }
+
+    /**
+     * @return the value at a {@link TaintRule} position of the call, or null if the statement has none there
+     */
+    public Value resolve(String position) {
+        if (invokeExpr == null) {
+            return null;
+        }
+        if (position.equals(TaintRule.RETURN)) {
+            return getAssignedLocal();
+        }
+        if (position.equals(TaintRule.BASE)) {
+            return invokeBase;
+        }
+        int index = Integer.parseInt(position.substring(TaintRule.ARG.length()));
+        return index < invokeExpr.getArgCount() ? invokeExpr.getArg(index) : null;
+    }
+
+    /**
+     * @return the left-hand side of an assignment, or null
+     */
+    public Value getLeftOp() {
+        return leftOp;
+    }
+
+    /**
+     * @return the left-hand side of an assignment if it is a local, or null
+     */
+    public Local getAssignedLocal() {
+        return leftOp instanceof Local ? (Local) leftOp : null;
+    }
+
+    /**
+     * @return the right-hand side of an assignment, or null
+     */
+    public Value getRightOp() {
+        return rightOp;
+    }
+
+    /**
+     * @return the call made by the statement, or null
+     */
+    public AbstractInvokeExpr getInvokeExpr() {
+        return invokeExpr;
+    }
+
+    /**
+     * @return the receiver of an instance call, or null
+     */
+    public Value getInvokeBase() {
+        return invokeBase;
+    }
+
+    /**
+     * @return the rules of the taint model for the called method
+     */
+    public List<TaintRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * @return whether the statement assigns nothing and calls no method of the taint model, so that its flow functions
+     * pass every fact on unchanged
+     */
+    public boolean isIdentity() {
+        return leftOp == null && rules.isEmpty();
+    }
+
+    public boolean isSource() {
+        return !sourceTargets.isEmpty();
+    }
+
+    /**
+     * @return the values that are tainted by the source call
+     */
+    public List<Value> getSourceTargets() {
+        return sourceTargets;
+    }
+
+    /**
+     * @return the facts that the source call generates from the zero fact; the set is shared and must not be changed
+     */
+    public Set<DataFlowFact> getSourceFacts() {
+        return sourceFacts;
+    }
+
+    public boolean isSink() {
+        return !sinkArguments.isEmpty();
+    }
+
+    /**
+     * @return the arguments that must not receive tainted data
+     */
+    public List<Value> getSinkArguments() {
+        return sinkArguments;
+    }
+
+    /**
+     * @return the categories of the sinks that {@code tainted} reaches as an argument of the call, empty if none
+     */
+    public List<String> getSinkCategories(Value tainted) {
+        if (sinkArguments.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> categories = new ArrayList<>(1);
+        for (int i = 0; i < sinkArguments.size(); i++) {
+            if (tainted.equals(sinkArguments.get(i)) && !categories.contains(sinkCategories.get(i))) {
+                categories.add(sinkCategories.get(i));
+            }
+        }
+        return categories;
+    }
+
+    /**
+     * @return the values that are clean after a sanitizer call
+     */
+    public List<Value> getSanitizedValues() {
+        return sanitized;
+    }
+
+    /**
+     * Whether the statement ends the taint of {@code value}: it assigns the local, a strong update that kills all
+     * facts on it, or it is a sanitizer call that cleans it.
+     */
+    public boolean kills(Value value) {
+        return value.equals(getAssignedLocal()) || (!sanitized.isEmpty() && sanitized.contains(value));
+    }
+
+    /**
+     * @return the values that receive the taint of {@code tainted} through a propagator
+     */
+    public List<Value> getPropagationTargets(Value tainted) {
+        if (propagations.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Value> targets = new ArrayList<>();
+        for (Value[] propagation : propagations) {
+            if (tainted.equals(propagation[0])) {
+                targets.add(propagation[1]);
+            }
+        }
+        return targets;
+    }
+}
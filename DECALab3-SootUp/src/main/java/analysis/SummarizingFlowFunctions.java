@@ -0,0 +1,273 @@
+package analysis;
+
+import analysis.fact.DataFlowFact;
+import analysis.incremental.SummaryStore;
+import analysis.model.TaintModel;
+import heros.FlowFunction;
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.java.core.JavaIdentifierFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Decorator that summarizes helper methods, i.e. methods with at least {@code minCallers} call sites that only call
+ * summarized methods themselves and are not recursive. The solver does not descend into a helper; instead, its
+ * summary for each entry fact, the facts at its exits, is computed once by a walk over its body and then applied at
+ * the call-to-return edge of every call site.
+ * <p>
+ * With a {@link SummaryStore}, the summaries of library helpers without sinks are kept between runs; a stored summary
+ * is only used while the hash of the helper is unchanged.
+ */
+public class SummarizingFlowFunctions extends ForwardingFlowFunctions {
+
+    private final int minCallers;
+    private final Map<SootMethod, Boolean> helpers = new ConcurrentHashMap<>();
+    private final Map<SootMethod, Map<DataFlowFact, List<SummaryStore.Edge>>> summaries = new ConcurrentHashMap<>();
+    private final LongAdder computed = new LongAdder();
+    private final LongAdder loaded = new LongAdder();
+
+    private SummaryStore store;
+    private ToLongFunction<SootMethod> hashOf;
+    private Predicate<SootMethod> persisted;
+
+    public SummarizingFlowFunctions(TaintAnalysisFlowFunctions delegate, int minCallers) {
+        super(delegate);
+        if (minCallers < 1) {
+            throw new IllegalArgumentException("A helper needs at least one caller, got " + minCallers);
+        }
+        this.minCallers = minCallers;
+    }
+
+    /**
+     * @param hashOf    the hash of a method and its callees, see {@link analysis.incremental.MethodHashes}
+     * @param persisted the helpers whose summaries are written to {@code store}
+     */
+    public void setSummaryStore(SummaryStore store, ToLongFunction<SootMethod> hashOf, Predicate<SootMethod> persisted) {
+        this.store = store;
+        this.hashOf = hashOf;
+        this.persisted = persisted;
+    }
+
+    @Override
+    public void setICFG(InterproceduralCFG<Stmt, SootMethod> icfg) {
+        super.setICFG(icfg);
+        helpers.clear();
+        summaries.clear();
+    }
+
+    @Override
+    public void setTaintModel(TaintModel model) {
+        super.setTaintModel(model);
+        helpers.clear();
+        summaries.clear();
+    }
+
+    @Override
+    public boolean isSummarized(SootMethod callee) {
+        return delegate.isSummarized(callee) || isHelper(callee);
+    }
+
+    public boolean isHelper(SootMethod method) {
+        Boolean helper = helpers.get(method);
+        if (helper == null) {
+            synchronized (helpers) {
+                helper = computeHelper(method, new HashSet<>());
+            }
+        }
+        return helper;
+    }
+
+    private boolean computeHelper(SootMethod method, Set<SootMethod> visiting) {
+        Boolean known = helpers.get(method);
+        if (known != null) {
+            return known;
+        }
+        if (!visiting.add(method)) {
+            // recursive
+            return false;
+        }
+        boolean helper = method.hasBody() && !IFDSTaintAnalysisProblem.isHandler(method) && icfg.getCallersOf(method).size() >= minCallers;
+        for (Stmt callSite : icfg.getCallsFromWithin(method)) {
+            for (SootMethod callee : icfg.getCalleesOfCallAt(callSite)) {
+                helper = helper && (delegate.isSummarized(callee) || computeHelper(callee, visiting));
+            }
+        }
+        visiting.remove(method);
+        helpers.put(method, helper);
+        return helper;
+    }
+
+    public long getComputedSummaries() {
+        return computed.sum();
+    }
+
+    public long getLoadedSummaries() {
+        return loaded.sum();
+    }
+
+    @Override
+    public FlowFunction<DataFlowFact> getCallToReturnFlowFunction(Stmt callSite, Stmt returnSite) {
+        FlowFunction<DataFlowFact> callToReturn = delegate.getCallToReturnFlowFunction(callSite, returnSite);
+        List<SootMethod> summarized = helperCalleesOf(callSite);
+        if (summarized.isEmpty()) {
+            return callToReturn;
+        }
+        return fact -> {
+            Set<DataFlowFact> out = new HashSet<>(callToReturn.computeTargets(fact));
+            applySummaries(callSite, returnSite, summarized, fact, out);
+            return out;
+        };
+    }
+
+    private List<SootMethod> helperCalleesOf(Stmt callSite) {
+        List<SootMethod> summarized = new ArrayList<>(1);
+        for (SootMethod callee : icfg.getCalleesOfCallAt(callSite)) {
+            if (!delegate.isSummarized(callee) && isHelper(callee)) {
+                summarized.add(callee);
+            }
+        }
+        return summarized;
+    }
+
+    /**
+     * Adds the facts that the calls of {@code callees} return at {@code returnSite} for {@code fact} before the call.
+     */
+    private void applySummaries(Stmt callSite, Stmt returnSite, List<SootMethod> callees, DataFlowFact fact, Set<DataFlowFact> out) {
+        for (SootMethod callee : callees) {
+            Set<DataFlowFact> entryFacts = new HashSet<>(delegate.getCallFlowFunction(callSite, callee).computeTargets(fact));
+            if (fact == DataFlowFact.getZeroInstance()) {
+                // the solver passes the zero fact into every callee
+                entryFacts.add(fact);
+            }
+            for (DataFlowFact entryFact : entryFacts) {
+                for (SummaryStore.Edge exit : summary(callee, entryFact)) {
+                    out.addAll(delegate.getReturnFlowFunction(callSite, callee, exit.getTarget(), returnSite).computeTargets(exit.getFact()));
+                }
+            }
+        }
+    }
+
+    private List<SummaryStore.Edge> summary(SootMethod method, DataFlowFact entryFact) {
+        Map<DataFlowFact, List<SummaryStore.Edge>> byEntryFact = summaries.computeIfAbsent(method, this::load);
+        List<SummaryStore.Edge> exits = byEntryFact.get(entryFact);
+        if (exits == null) {
+            exits = computeSummary(method, entryFact);
+            List<SummaryStore.Edge> raced = byEntryFact.putIfAbsent(entryFact, exits);
+            if (raced != null) {
+                return raced;
+            }
+            computed.increment();
+        }
+        return exits;
+    }
+
+    private Map<DataFlowFact, List<SummaryStore.Edge>> load(SootMethod method) {
+        Map<DataFlowFact, List<SummaryStore.Edge>> byEntryFact = new ConcurrentHashMap<>();
+        if (store == null) {
+            return byEntryFact;
+        }
+        store.get(method, hashOf.applyAsLong(method), JavaIdentifierFactory.getInstance()).ifPresent(summary -> {
+            for (SummaryStore.Edge exit : summary.getEndSummaries()) {
+                byEntryFact.computeIfAbsent(exit.getSource(), f -> new ArrayList<>()).add(exit);
+            }
+            loaded.add(byEntryFact.size());
+        });
+        return byEntryFact;
+    }
+
+    /**
+     * Walks the body of {@code method} from its start points with {@code entryFact}. Calls in a helper only go to
+     * summarized methods, so the walk never leaves the body.
+     */
+    private List<SummaryStore.Edge> computeSummary(SootMethod method, DataFlowFact entryFact) {
+        Map<Stmt, Set<DataFlowFact>> reached = new HashMap<>();
+        Deque<Stmt> stmts = new ArrayDeque<>();
+        Deque<DataFlowFact> facts = new ArrayDeque<>();
+        for (Stmt startPoint : icfg.getStartPointsOf(method)) {
+            if (reached.computeIfAbsent(startPoint, s -> new HashSet<>()).add(entryFact)) {
+                stmts.add(startPoint);
+                facts.add(entryFact);
+            }
+        }
+        List<SummaryStore.Edge> exits = new ArrayList<>();
+        while (!stmts.isEmpty()) {
+            Stmt stmt = stmts.poll();
+            DataFlowFact fact = facts.poll();
+            if (icfg.isExitStmt(stmt)) {
+                exits.add(new SummaryStore.Edge(entryFact, stmt, fact));
+            }
+            List<Stmt> targets = icfg.isCallStmt(stmt) ? new ArrayList<>(icfg.getReturnSitesOfCallAt(stmt)) : icfg.getSuccsOf(stmt);
+            for (Stmt target : targets) {
+                Set<DataFlowFact> out;
+                if (icfg.isCallStmt(stmt)) {
+                    out = new HashSet<>(delegate.getCallToReturnFlowFunction(stmt, target).computeTargets(fact));
+                    applySummaries(stmt, target, helperCalleesOf(stmt), fact, out);
+                } else {
+                    out = new HashSet<>(delegate.getNormalFlowFunction(stmt, target).computeTargets(fact));
+                }
+                if (fact == DataFlowFact.getZeroInstance()) {
+                    out.add(fact);
+                }
+                for (DataFlowFact targetFact : out) {
+                    if (reached.computeIfAbsent(target, s -> new HashSet<>()).add(targetFact)) {
+                        stmts.add(target);
+                        facts.add(targetFact);
+                    }
+                }
+            }
+        }
+        return exits.isEmpty() ? Collections.emptyList() : exits;
+    }
+
+    /**
+     * Writes the summaries of the persisted helpers to the summary store. Helpers that contain a sink are left out,
+     * because a stored summary does not report the findings in the helper again.
+     */
+    public void saveSummaries() {
+        if (store == null) {
+            return;
+        }
+        for (Map.Entry<SootMethod, Map<DataFlowFact, List<SummaryStore.Edge>>> e : summaries.entrySet()) {
+            SootMethod method = e.getKey();
+            if (!persisted.test(method) || containsSink(method, new HashSet<>())) {
+                continue;
+            }
+            List<SummaryStore.Edge> exits = new ArrayList<>();
+            for (List<SummaryStore.Edge> edges : e.getValue().values()) {
+                exits.addAll(edges);
+            }
+            store.put(method, hashOf.applyAsLong(method), Collections.emptyList(), exits);
+        }
+    }
+
+    private boolean containsSink(SootMethod method, Set<SootMethod> visited) {
+        if (!visited.add(method)) {
+            return false;
+        }
+        for (Stmt callSite : icfg.getCallsFromWithin(method)) {
+            if (new StmtClassification(callSite, getTaintModel()).isSink()) {
+                return true;
+            }
+            for (SootMethod callee : icfg.getCalleesOfCallAt(callSite)) {
+                if (!delegate.isSummarized(callee) && containsSink(callee, visited)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,104 @@
+package analysis;
+
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Hides the callees that the flow functions summarize, e.g. the library classes of the taint model. The solver then
+ * only applies the call-to-return flow function at such calls, where the summary is applied, and never descends into
+ * their bodies.
+ */
+public class SummarizingICFG implements InterproceduralCFG<Stmt, SootMethod> {
+
+    private final InterproceduralCFG<Stmt, SootMethod> delegate;
+    private final Predicate<SootMethod> summarized;
+
+    public SummarizingICFG(InterproceduralCFG<Stmt, SootMethod> delegate, Predicate<SootMethod> summarized) {
+        this.delegate = delegate;
+        this.summarized = summarized;
+    }
+
+    @Override
+    public Collection<SootMethod> getCalleesOfCallAt(Stmt n) {
+        Collection<SootMethod> callees = delegate.getCalleesOfCallAt(n);
+        List<SootMethod> analyzed = new ArrayList<>(callees.size());
+        for (SootMethod callee : callees) {
+            if (!summarized.test(callee)) {
+                analyzed.add(callee);
+            }
+        }
+        return analyzed;
+    }
+
+    @Override
+    public SootMethod getMethodOf(Stmt n) {
+        return delegate.getMethodOf(n);
+    }
+
+    @Override
+    public List<Stmt> getPredsOf(Stmt n) {
+        return delegate.getPredsOf(n);
+    }
+
+    @Override
+    public List<Stmt> getSuccsOf(Stmt n) {
+        return delegate.getSuccsOf(n);
+    }
+
+    @Override
+    public Collection<Stmt> getCallersOf(SootMethod m) {
+        return delegate.getCallersOf(m);
+    }
+
+    @Override
+    public Set<Stmt> getCallsFromWithin(SootMethod m) {
+        return delegate.getCallsFromWithin(m);
+    }
+
+    @Override
+    public Collection<Stmt> getStartPointsOf(SootMethod m) {
+        return delegate.getStartPointsOf(m);
+    }
+
+    @Override
+    public Collection<Stmt> getReturnSitesOfCallAt(Stmt n) {
+        return delegate.getReturnSitesOfCallAt(n);
+    }
+
+    @Override
+    public boolean isCallStmt(Stmt stmt) {
+        return delegate.isCallStmt(stmt);
+    }
+
+    @Override
+    public boolean isExitStmt(Stmt stmt) {
+        return delegate.isExitStmt(stmt);
+    }
+
+    @Override
+    public boolean isStartPoint(Stmt stmt) {
+        return delegate.isStartPoint(stmt);
+    }
+
+    @Override
+    public Set<Stmt> allNonCallStartNodes() {
+        return delegate.allNonCallStartNodes();
+    }
+
+    @Override
+    public boolean isFallThroughSuccessor(Stmt stmt, Stmt succ) {
+        return delegate.isFallThroughSuccessor(stmt, succ);
+    }
+
+    @Override
+    public boolean isBranchTarget(Stmt stmt, Stmt succ) {
+        return delegate.isBranchTarget(stmt, succ);
+    }
+}
@@ -1,20 +1,125 @@
 package analysis;
 
 import analysis.fact.DataFlowFact;
+import analysis.fieldbased.FieldTaintTable;
+import analysis.model.TaintModel;
+import analysis.model.TaintRule;
+import analysis.path.PathTracker;
+import analysis.trace.TraceSink;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.hash.Hashing;
+import heros.FlowFunction;
 import heros.FlowFunctions;
 import heros.InterproceduralCFG;
+import heros.flowfunc.Identity;
+import heros.flowfunc.KillAll;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootMethod;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 public abstract class TaintAnalysisFlowFunctions implements FlowFunctions<Stmt, DataFlowFact, SootMethod> {
+    public static final String SQL_INJECTION = TaintRule.SQL_INJECTION;
+
+    // shared by all statements that pass every fact on or end all facts, so that they allocate no flow function
+    protected static final FlowFunction<DataFlowFact> IDENTITY = Identity.v();
+    protected static final FlowFunction<DataFlowFact> KILL_ALL = KillAll.v();
+
     protected InterproceduralCFG<Stmt, SootMethod> icfg;
+    protected TraceSink trace = TraceSink.NONE;
+    protected TaintModel model = TaintModel.getDefault();
+    protected PathTracker paths = PathTracker.NONE;
+    protected FieldTaintTable fieldTaint;
+
+    // weak keys compare by identity, which is what statements use as well
+    private final LoadingCache<Stmt, StmtClassification> classifications =
+            CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(stmt -> new StmtClassification(stmt, model)));
 
     public void setICFG(InterproceduralCFG<Stmt, SootMethod> icfg) {
         this.icfg = icfg;
     }
 
+    public void setTraceSink(TraceSink trace) {
+        this.trace = trace;
+    }
+
+    public TaintModel getTaintModel() {
+        return model;
+    }
+
+    public void setTaintModel(TaintModel model) {
+        this.model = model;
+        classifications.invalidateAll();
+    }
+
+    /**
+     * @return true if calls of {@code callee} are handled by the call-to-return flow function alone, so that the
+     * solver does not descend into its body
+     */
+    public boolean isSummarized(SootMethod callee) {
+        return model.isSummarized(callee.getSignature());
+    }
+
+    /**
+     * @return a hash of everything the facts computed by these flow functions depend on besides the program: the flow
+     * function class and the taint model. A {@link analysis.incremental.SummaryStore} only takes edges of one
+     * fingerprint. Subclasses with options that change the facts mix them in.
+     */
+    public long fingerprint() {
+        return Hashing.murmur3_128().newHasher()
+                .putString(getClass().getName(), StandardCharsets.UTF_8)
+                .putLong(getTaintModel().fingerprint())
+                .hash().asLong();
+    }
+
+    public void setPathTracker(PathTracker paths) {
+        this.paths = paths;
+    }
+
+    /**
+     * Keeps field taint in {@code fieldTaint} instead of in facts. Only field-based flow functions consult it;
+     * null, the default, keeps field taint in facts.
+     */
+    public void setFieldTaintTable(FieldTaintTable fieldTaint) {
+        this.fieldTaint = fieldTaint;
+    }
+
+    /**
+     * @return how the taint reached {@code fact} at {@code stmt}, empty unless path tracking is on
+     */
+    protected List<String> witness(Stmt stmt, DataFlowFact fact) {
+        return paths.witness(stmt, fact);
+    }
+
+    /**
+     * Classifies a statement once; call this when creating a flow function, not inside it. Decorators hand this on to
+     * the flow functions they wrap, so that all of them share one classification per statement.
+     */
+    protected StmtClassification classify(Stmt stmt) {
+        return classifications.getUnchecked(stmt);
+    }
+
+    /**
+     * @return {@code function} itself, or with tracing on, a function that traces each fact at {@code stmt} first
+     */
+    protected FlowFunction<DataFlowFact> traced(Stmt stmt, FlowFunction<DataFlowFact> function) {
+        if (!trace.isEnabled()) {
+            return function;
+        }
+        return fact -> {
+            prettyPrint(stmt, fact);
+            return function.computeTargets(fact);
+        };
+    }
+
     protected void prettyPrint(Stmt stmt, DataFlowFact fact) {
+        if (!trace.isEnabled()) {
+            return;
+        }
         // if(icfg.getMethodOf(stmt).toString().contains("doGet"))
-        System.out.println("Method :" + icfg.getMethodOf(stmt) + ", Stmt(line:" + stmt.getPositionInfo().getStmtPosition().getFirstLine() + ") " + stmt + ", Fact: " + fact);
+        trace.trace("Method :" + icfg.getMethodOf(stmt) + ", Stmt(line:" + stmt.getPositionInfo().getStmtPosition().getFirstLine() + ") " + stmt + ", Fact: " + fact);
     }
 }
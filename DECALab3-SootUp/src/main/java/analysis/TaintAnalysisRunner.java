@@ -0,0 +1,545 @@
+package analysis;
+
+import analysis.fact.DataFlowFact;
+import analysis.fieldbased.FieldTaintTable;
+import analysis.incremental.MethodHashes;
+import analysis.incremental.SummaryStore;
+import analysis.path.PathTracker;
+import analysis.report.Finding;
+import analysis.report.SolverStatistics;
+import analysis.result.ResultStore;
+import analysis.sparse.DefUseChains;
+import sootup.callgraph.CallGraph;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs the IFDS taint analysis for one or several entry points with a configurable number of solver threads.
+ * Several entry points share one ICFG and one solver run; findings are attributed to the entry points that reach them.
+ * Optionally records every fact that reaches a statement; recording goes to concurrent sets per statement,
+ * so the solver threads do not contend on a single lock.
+ * <p>
+ * A run can be bounded in time and in the facts it propagates. A run that exceeds its budget stops early and returns
+ * what it found so far, marked as incomplete; optionally, the analysis is then repeated with cheaper flow functions.
+ */
+public class TaintAnalysisRunner {
+
+    private final View view;
+    private int numThreads = Runtime.getRuntime().availableProcessors();
+    private boolean recordFacts;
+    private boolean trackPaths;
+    private Function<MethodSignature, ? extends Collection<MethodSignature>> callGraph;
+    private SummaryStore summaryStore;
+    private int helperMinCallers;
+    private SummaryStore librarySummaries;
+    private boolean sparse;
+    private boolean collectStatistics;
+    private boolean globalFieldTaint;
+    private Duration timeBudget;
+    private long factBudget = Long.MAX_VALUE;
+    private Supplier<? extends TaintAnalysisFlowFunctions> fallback;
+
+    public TaintAnalysisRunner(View view) {
+        this.view = view;
+    }
+
+    public TaintAnalysisRunner setNumThreads(int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("At least one solver thread is required, got " + numThreads);
+        }
+        this.numThreads = numThreads;
+        return this;
+    }
+
+    public TaintAnalysisRunner setRecordFacts(boolean recordFacts) {
+        this.recordFacts = recordFacts;
+        return this;
+    }
+
+    /**
+     * Keeps one predecessor per (statement, fact) so that each finding carries a source-to-sink witness.
+     * Off by default: bulk scans that only need the findings do not pay for the extra map.
+     */
+    public TaintAnalysisRunner setTrackPaths(boolean trackPaths) {
+        this.trackPaths = trackPaths;
+        return this;
+    }
+
+    /**
+     * Re-analyzes incrementally: methods whose body and callees are unchanged since the run that filled
+     * {@code summaryStore} are restored from it instead of being solved again. After the run, the store holds the
+     * edges of all methods of this run. A store filled with other flow functions or another taint model is rejected,
+     * see {@link SummaryStore#bindTo(long)}.
+     */
+    public TaintAnalysisRunner setSummaryStore(SummaryStore summaryStore) {
+        this.summaryStore = summaryStore;
+        return this;
+    }
+
+    /**
+     * Summarizes helper methods with at least {@code minCallers} call sites, see {@link SummarizingFlowFunctions}:
+     * each helper is analyzed once per entry fact instead of once per calling context. 0 switches this off.
+     */
+    public TaintAnalysisRunner setSummarizeHelpers(int minCallers) {
+        if (minCallers < 0) {
+            throw new IllegalArgumentException("The number of callers must not be negative, got " + minCallers);
+        }
+        this.helperMinCallers = minCallers;
+        return this;
+    }
+
+    /**
+     * Keeps the summaries of helpers in library classes between runs. Only used when helpers are summarized.
+     */
+    public TaintAnalysisRunner setLibrarySummaries(SummaryStore librarySummaries) {
+        this.librarySummaries = librarySummaries;
+        return this;
+    }
+
+    /**
+     * Propagates each fact only through the statements that use or define its base and lets it jump over all others,
+     * see {@link DefUseChains}. The findings and the recorded facts are the same as without it.
+     * <p>
+     * The solver keeps no path edges for the statements a fact jumps over, so its jump functions, and with them the
+     * path edges of the {@link SolverStatistics}, cover only the statements facts were propagated through. This
+     * cannot be combined with the summary store or helper summaries, which need the edges of every statement.
+     */
+    public TaintAnalysisRunner setSparse(boolean sparse) {
+        this.sparse = sparse;
+        return this;
+    }
+
+    /**
+     * Keeps field-based taint in one {@link FieldTaintTable} per run instead of in facts, so that field taint is not
+     * propagated through every statement and method between a store and a load. Only field-based flow functions use
+     * the table. Loads see the stores of the whole run, regardless of their order. This cannot be combined with the
+     * summary store or helper summaries, which restore or summarize methods without running their loads and stores.
+     */
+    public TaintAnalysisRunner setGlobalFieldTaint(boolean globalFieldTaint) {
+        this.globalFieldTaint = globalFieldTaint;
+        return this;
+    }
+
+    /**
+     * Collects {@link SolverStatistics} for each run: time per phase, the sizes of the solver's tables, flow function
+     * applications and the hot methods. Counting the flow function applications adds a little to the solve time.
+     */
+    public TaintAnalysisRunner setCollectStatistics(boolean collectStatistics) {
+        this.collectStatistics = collectStatistics;
+        return this;
+    }
+
+    /**
+     * Stops solving once {@code budget} has passed since the solver started. The result is then incomplete, see
+     * {@link Result#isComplete()}, and holds the facts and findings up to that point. The budget is approximate: the
+     * solver reads the clock only once every 64 propagations, and a single expensive flow function can overrun it.
+     */
+    public TaintAnalysisRunner setTimeBudget(Duration budget) {
+        if (budget.isNegative() || budget.isZero()) {
+            throw new IllegalArgumentException("The time budget must be positive, got " + budget);
+        }
+        this.timeBudget = budget;
+        return this;
+    }
+
+    /**
+     * Stops solving once the solver has propagated {@code maxFacts} facts to statements, which bounds the size of
+     * its tables. The result is then incomplete, see {@link Result#isComplete()}.
+     */
+    public TaintAnalysisRunner setFactBudget(long maxFacts) {
+        if (maxFacts < 1) {
+            throw new IllegalArgumentException("The fact budget must be positive, got " + maxFacts);
+        }
+        this.factBudget = maxFacts;
+        return this;
+    }
+
+    /**
+     * Repeats a run that exceeded its budget over the same ICFG with the flow functions from {@code fallback},
+     * typically the field-based {@link analysis.exercise.Exercise2FlowFunctions} on the reporter of the first run.
+     * The findings of the first run stay with its reporter. The fallback has the same budgets and the taint model of
+     * the first run, and uses neither the summary store nor the library summaries, since those hold the facts of the
+     * first run's flow functions.
+     */
+    public TaintAnalysisRunner setFallback(Supplier<? extends TaintAnalysisFlowFunctions> fallback) {
+        this.fallback = fallback;
+        return this;
+    }
+
+    private boolean isLibraryMethod(SootMethod method) {
+        Optional<? extends SootClass> clazz = view.getClass(method.getDeclaringClassType());
+        return clazz.isPresent() && clazz.get().isLibraryClass();
+    }
+
+    /**
+     * Resolves calls with an existing call graph, e.g. a more precise RTA or VTA graph, instead of by the
+     * signature named at the call.
+     *
+     * @param callGraph the methods called by a method
+     */
+    public TaintAnalysisRunner setCallGraph(Function<MethodSignature, ? extends Collection<MethodSignature>> callGraph) {
+        this.callGraph = callGraph;
+        return this;
+    }
+
+    public TaintAnalysisRunner setCallGraph(CallGraph callGraph) {
+        return setCallGraph(callGraph::callsFrom);
+    }
+
+    /**
+     * @return the request handlers of all classes in the view, see {@link IFDSTaintAnalysisProblem#HANDLER_NAMES}
+     */
+    public List<MethodSignature> findEntryPoints() {
+        List<MethodSignature> entryPoints = new ArrayList<>();
+        for (SootClass clazz : view.getClasses()) {
+            for (SootMethod method : clazz.getMethods()) {
+                if (IFDSTaintAnalysisProblem.isHandler(method)) {
+                    entryPoints.add(method.getSignature());
+                }
+            }
+        }
+        return entryPoints;
+    }
+
+    /**
+     * Builds the ICFG for {@code entryPoint} and solves the taint problem over it.
+     * Findings go to the reporter of {@code flowFunctions}.
+     */
+    public Result run(TaintAnalysisFlowFunctions flowFunctions, MethodSignature entryPoint) {
+        return run(flowFunctions, Collections.singletonList(entryPoint));
+    }
+
+    /**
+     * Builds one ICFG for all {@code entryPoints} and solves the taint problem for all of them in a single run.
+     * Findings go to the reporter of {@code flowFunctions}. If the run exceeds its budget and a fallback is set,
+     * the result is that of the fallback run.
+     */
+    public Result run(TaintAnalysisFlowFunctions flowFunctions, List<MethodSignature> entryPoints) {
+        if (globalFieldTaint && (summaryStore != null || helperMinCallers > 0)) {
+            throw new IllegalStateException("The global field taint table cannot be combined with stored or helper summaries");
+        }
+        if (sparse && (summaryStore != null || helperMinCallers > 0)) {
+            throw new IllegalStateException("Sparse propagation cannot be combined with stored or helper summaries");
+        }
+        if (summaryStore != null) {
+            summaryStore.bindTo(flowFunctions.fingerprint());
+        }
+        if (librarySummaries != null && helperMinCallers > 0) {
+            librarySummaries.bindTo(flowFunctions.fingerprint());
+        }
+        SolverStatistics statistics = collectStatistics ? new SolverStatistics() : null;
+        long phase = System.nanoTime();
+        CallGraphICFG icfg = callGraph == null
+                ? new MultiEntryPointICFG(view, entryPoints)
+                : new CallGraphICFG(view, entryPoints, callGraph);
+        phase = lap(statistics, "icfg", phase);
+        MethodHashes hashes = summaryStore != null || librarySummaries != null ? new MethodHashes(view, icfg) : null;
+        if (hashes != null) {
+            phase = lap(statistics, "hashes", phase);
+        }
+        Result result = solve(flowFunctions, entryPoints, icfg, hashes, statistics, phase, false);
+        if (result.isComplete() || fallback == null) {
+            return result;
+        }
+        TaintAnalysisFlowFunctions fallbackFunctions = fallback.get();
+        fallbackFunctions.setTaintModel(flowFunctions.getTaintModel());
+        return solve(fallbackFunctions, entryPoints, icfg, null, collectStatistics ? new SolverStatistics() : null, System.nanoTime(), true);
+    }
+
+    /**
+     * Solves the taint problem over {@code icfg}. The stores are used if {@code hashes} is given.
+     */
+    private Result solve(TaintAnalysisFlowFunctions flowFunctions, List<MethodSignature> entryPoints, CallGraphICFG icfg,
+                         MethodHashes hashes, SolverStatistics statistics, long phase, boolean isFallback) {
+        TaintAnalysisFlowFunctions functions = flowFunctions;
+        PathTracker paths = PathTracker.NONE;
+        if (trackPaths) {
+            paths = new PathTracker(icfg);
+            functions = new PathTrackingFlowFunctions(functions, paths);
+        }
+        SummarizingFlowFunctions helpers = null;
+        if (helperMinCallers > 0) {
+            helpers = new SummarizingFlowFunctions(functions, helperMinCallers);
+            if (librarySummaries != null && hashes != null) {
+                helpers.setSummaryStore(librarySummaries, hashes::hashOf, this::isLibraryMethod);
+            }
+            functions = helpers;
+        }
+        CountingFlowFunctions counting = null;
+        if (statistics != null) {
+            counting = new CountingFlowFunctions(functions);
+            functions = counting;
+        }
+        functions.setICFG(icfg);
+        FieldTaintTable fieldTaint = globalFieldTaint ? new FieldTaintTable() : null;
+        functions.setFieldTaintTable(fieldTaint);
+        // no caching decorator: the Heros solver already memoizes flow functions, see IDESolver#DEFAULT_CACHE_BUILDER
+        IFDSTaintAnalysisProblem problem = new IFDSTaintAnalysisProblem(icfg, functions, entryPoints, view);
+        problem.setNumThreads(numThreads);
+
+        Result result = new Result(icfg, paths);
+        result.fallback = isFallback;
+        TaintAnalysisSolver solver = new TaintAnalysisSolver(problem);
+        solver.setBudget(timeBudget == null ? Long.MAX_VALUE : timeBudget.toNanos(), factBudget);
+        if (recordFacts) {
+            solver.setRecorder(result.store::record);
+        }
+        if (fieldTaint != null) {
+            solver.setFieldTaintTable(fieldTaint);
+            result.fieldTaint = fieldTaint;
+        }
+        if (sparse) {
+            solver.setSparse(new DefUseChains(icfg), paths);
+        }
+        if (summaryStore != null && hashes != null) {
+            for (SootMethod method : hashes.getMethods()) {
+                summaryStore.get(method, hashes.hashOf(method), view.getIdentifierFactory())
+                        .ifPresent(summary -> solver.restore(method, summary));
+            }
+            phase = lap(statistics, "restore", phase);
+        }
+        long start = System.nanoTime();
+        solver.solve();
+        result.solveNanos = System.nanoTime() - start;
+        result.propagations = solver.getPropagationCount();
+        result.exceededBudget = solver.getExceededBudget().orElse(null);
+        phase = lap(statistics, "solve", start);
+        for (SootMethod method : solver.getRestoredMethods()) {
+            result.restoredMethods.add(method.getSignature());
+        }
+        // the edges of an incomplete run are not the summaries of the methods, so they are not kept
+        if (summaryStore != null && hashes != null && result.isComplete()) {
+            for (SootMethod method : hashes.getMethods()) {
+                List<SummaryStore.Edge> jumpFunctions = solver.getJumpFunctions(method);
+                if (!jumpFunctions.isEmpty()) {
+                    summaryStore.put(method, hashes.hashOf(method), jumpFunctions, solver.getEndSummaries(method));
+                }
+            }
+            phase = lap(statistics, "store", phase);
+        }
+        if (helpers != null) {
+            if (result.isComplete()) {
+                helpers.saveSummaries();
+            }
+            result.computedSummaries = helpers.getComputedSummaries();
+            result.loadedSummaries = helpers.getLoadedSummaries();
+            lap(statistics, "helperSummaries", phase);
+        }
+        if (statistics != null) {
+            collectStatistics(statistics, icfg, solver, counting, result);
+        }
+        result.statistics = statistics;
+        return result;
+    }
+
+    private static long lap(SolverStatistics statistics, String phase, long start) {
+        long now = System.nanoTime();
+        if (statistics != null) {
+            statistics.addPhase(phase, now - start);
+        }
+        return now;
+    }
+
+    private void collectStatistics(SolverStatistics statistics, CallGraphICFG icfg, TaintAnalysisSolver solver,
+                                   CountingFlowFunctions counting, Result result) {
+        statistics.setOption("threads", numThreads);
+        statistics.setOption("sparse", sparse);
+        statistics.setOption("globalFieldTaint", globalFieldTaint);
+        statistics.setOption("helperMinCallers", helperMinCallers);
+        statistics.setOption("summaryStore", summaryStore != null);
+        statistics.setOption("entryPoints", icfg.getEntryPoints().size());
+        statistics.setOption("timeBudgetMillis", timeBudget == null ? -1 : timeBudget.toMillis());
+        statistics.setOption("factBudget", factBudget == Long.MAX_VALUE ? -1 : factBudget);
+        statistics.setOption("fallback", result.isFallback());
+        statistics.setOption("exceededBudget", result.getExceededBudget().map(Enum::name).orElse("none"));
+
+        Map<SootMethod, Long> applications = counting.getApplicationsPerMethod();
+        long pathEdges = 0;
+        for (MethodSignature signature : icfg.getReachableMethods()) {
+            Optional<? extends SootMethod> method = view.getMethod(signature);
+            if (!method.isPresent() || !method.get().hasBody()) {
+                continue;
+            }
+            List<SummaryStore.Edge> edges = solver.getJumpFunctions(method.get());
+            Set<DataFlowFact> facts = new HashSet<>();
+            for (SummaryStore.Edge edge : edges) {
+                facts.add(edge.getFact());
+            }
+            pathEdges += edges.size();
+            statistics.addMethod(new SolverStatistics.MethodStatistics(signature.toString(), edges.size(), facts.size(),
+                    applications.getOrDefault(method.get(), 0L)));
+        }
+        statistics.setCount(SolverStatistics.PATH_EDGES, pathEdges);
+        statistics.setCount(SolverStatistics.END_SUMMARIES, solver.countEndSummaries());
+        statistics.setCount(SolverStatistics.INCOMING_EDGES, solver.countIncomingEdges());
+        statistics.setCount(SolverStatistics.PROPAGATIONS, result.propagations);
+        statistics.setCount(SolverStatistics.RESTORED_METHODS, solver.getRestoredMethods().size());
+        statistics.setCount(SolverStatistics.COMPUTED_SUMMARIES, result.computedSummaries);
+        statistics.setCount(SolverStatistics.LOADED_SUMMARIES, result.loadedSummaries);
+        statistics.setCount(SolverStatistics.TAINTED_FIELDS, result.getTaintedFields().size());
+        Runtime runtime = Runtime.getRuntime();
+        statistics.setCount(SolverStatistics.HEAP_USED_BYTES, runtime.totalMemory() - runtime.freeMemory());
+        for (CountingFlowFunctions.Kind kind : CountingFlowFunctions.Kind.values()) {
+            statistics.setFlowFunctionApplications(kind.name(), counting.getApplications(kind));
+        }
+    }
+
+    public static class Result {
+        private final CallGraphICFG icfg;
+        private final PathTracker paths;
+        private final Set<MethodSignature> restoredMethods = new HashSet<>();
+        private long solveNanos;
+        private long propagations;
+        private long computedSummaries;
+        private long loadedSummaries;
+        private final ResultStore store;
+        private SolverStatistics statistics;
+        private TaintAnalysisSolver.Budget exceededBudget;
+        private boolean fallback;
+        private FieldTaintTable fieldTaint;
+        private Map<String, MethodSignature> reachableMethods;
+
+        Result(CallGraphICFG icfg, PathTracker paths) {
+            this.icfg = icfg;
+            this.paths = paths;
+            this.store = ResultStore.recording(icfg::getMethodOf);
+        }
+
+        /**
+         * @return the facts that reached each statement, recorded while solving; empty unless facts were recorded
+         */
+        public ResultStore getResultStore() {
+            return store;
+        }
+
+        /**
+         * @return the predecessor links recorded for the witnesses, {@link PathTracker#NONE} unless paths were tracked
+         */
+        public PathTracker getPathTracker() {
+            return paths;
+        }
+
+        /**
+         * @return the methods that were restored from the summary store instead of being solved
+         */
+        public Set<MethodSignature> getRestoredMethods() {
+            return Collections.unmodifiableSet(restoredMethods);
+        }
+
+        /**
+         * @return the helper summaries computed in this run, one per helper and entry fact
+         */
+        public long getComputedSummaries() {
+            return computedSummaries;
+        }
+
+        /**
+         * @return the helper summaries taken from the library summary store
+         */
+        public long getLoadedSummaries() {
+            return loadedSummaries;
+        }
+
+        /**
+         * @return the statistics of the run, empty unless statistics were collected
+         */
+        public Optional<SolverStatistics> getStatistics() {
+            return Optional.ofNullable(statistics);
+        }
+
+        /**
+         * @return the fields tainted in the global field taint table, empty unless it was used
+         */
+        public Set<FieldSignature> getTaintedFields() {
+            return fieldTaint == null ? Collections.emptySet() : fieldTaint.getTaintedFields();
+        }
+
+        /**
+         * @return false if the run stopped at a budget; its facts and findings are then only those found until then
+         */
+        public boolean isComplete() {
+            return exceededBudget == null;
+        }
+
+        /**
+         * @return the budget that stopped the run, empty if the run is complete
+         */
+        public Optional<TaintAnalysisSolver.Budget> getExceededBudget() {
+            return Optional.ofNullable(exceededBudget);
+        }
+
+        /**
+         * @return whether this is the result of the fallback flow functions, after the first run exceeded its budget
+         */
+        public boolean isFallback() {
+            return fallback;
+        }
+
+        public long getSolveNanos() {
+            return solveNanos;
+        }
+
+        /**
+         * @return the path edges the solver scheduled
+         */
+        public long getPropagations() {
+            return propagations;
+        }
+
+        /**
+         * @return the entry points from which the method of {@code finding} is reachable in the call graph. This
+         * over-approximates the entry points whose taint reaches the sink: an entry point that calls the method without
+         * passing it tainted data is listed as well.
+         */
+        public Set<MethodSignature> getEntryPointsReaching(Finding finding) {
+            MethodSignature method = reachableMethods().get(finding.getMethodSignature());
+            return method == null ? Collections.emptySet() : icfg.getEntryPointsReaching(method);
+        }
+
+        /**
+         * Groups findings by the entry points reaching them, see {@link #getEntryPointsReaching(Finding)}. A finding in
+         * a method shared by several entry points is listed for each.
+         */
+        public Map<MethodSignature, List<Finding>> groupByReachingEntryPoint(Collection<Finding> findings) {
+            Map<MethodSignature, List<Finding>> grouped = new LinkedHashMap<>();
+            for (MethodSignature entryPoint : icfg.getEntryPoints()) {
+                grouped.put(entryPoint, new ArrayList<>());
+            }
+            for (Finding finding : findings) {
+                for (MethodSignature entryPoint : getEntryPointsReaching(finding)) {
+                    grouped.get(entryPoint).add(finding);
+                }
+            }
+            return grouped;
+        }
+
+        // findings name their method as text; index the reachable methods by it once
+        private synchronized Map<String, MethodSignature> reachableMethods() {
+            if (reachableMethods == null) {
+                Map<String, MethodSignature> methods = new HashMap<>();
+                for (MethodSignature method : icfg.getReachableMethods()) {
+                    methods.put(method.toString(), method);
+                }
+                reachableMethods = methods;
+            }
+            return reachableMethods;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package analysis;
+
+import analysis.fact.DataFlowFact;
+import analysis.fieldbased.FieldTaintTable;
+import analysis.incremental.SummaryStore;
+import analysis.path.PathTracker;
+import analysis.sparse.DefUseChains;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import heros.EdgeFunction;
+import heros.FlowFunction;
+import heros.InterproceduralCFG;
+import heros.edgefunc.EdgeIdentity;
+import heros.solver.PathEdge;
+import sootup.analysis.interprocedural.ifds.JimpleIFDSSolver;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * IFDS solver of the taint analysis. On top of the plain solver, it can report every fact that reaches a statement,
+ * and it can start from the jump functions and end summaries of an earlier run for methods that did not change.
+ * <p>
+ * A restored method is not processed again. When the solver reaches its start point with a restored entry fact,
+ * the restored facts at its sink calls are passed through the call-to-return flow function once more, so that the
+ * findings inside it are reported again, and the facts it passes to its callees are propagated into those callees.
+ * <p>
+ * In sparse mode, a fact that reaches a statement which neither uses nor defines its base jumps straight to the next
+ * statements that do, see {@link DefUseChains}, instead of going through the flow functions of every statement.
+ * <p>
+ * A run can be given a time and a fact budget. Once one is exceeded, the solver propagates no further edges: the
+ * edges already scheduled drain without effect, {@link #solve()} returns, and the facts found so far are a partial
+ * result, see {@link #getExceededBudget()}.
+ */
+public class TaintAnalysisSolver extends JimpleIFDSSolver<DataFlowFact, InterproceduralCFG<Stmt, SootMethod>> {
+
+    /**
+     * The budgets a run can exceed.
+     */
+    public enum Budget {
+        TIME, FACTS
+    }
+
+    // the clock is read once per this many propagations
+    private static final int CLOCK_INTERVAL = 64;
+
+    private final TaintAnalysisFlowFunctions taintFlowFunctions;
+    private BiConsumer<Stmt, DataFlowFact> recorder;
+    private DefUseChains defUse;
+    private PathTracker paths = PathTracker.NONE;
+
+    private final Map<Stmt, SootMethod> restoredStartPoints = new HashMap<>();
+    private final Map<SootMethod, Map<DataFlowFact, List<SummaryStore.Edge>>> restoredEdges = new HashMap<>();
+    private final Set<List<Object>> replayed = ConcurrentHashMap.newKeySet();
+
+    private long timeBudgetNanos = Long.MAX_VALUE;
+    private long factBudget = Long.MAX_VALUE;
+    private long deadline;
+    private final AtomicLong budgetedPropagations = new AtomicLong();
+    private volatile Budget exceeded;
+    // Heros counts into a plain field, which loses increments with several solver threads
+    private final LongAdder scheduledEdges = new LongAdder();
+
+    public TaintAnalysisSolver(IFDSTaintAnalysisProblem problem) {
+        super(problem);
+        this.taintFlowFunctions = problem.createFlowFunctionsFactory();
+    }
+
+    /**
+     * @param recorder receives each statement and fact the solver propagates, including restored ones
+     */
+    public void setRecorder(BiConsumer<Stmt, DataFlowFact> recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Switches on sparse propagation. Facts are still recorded at the statements they jump over, but no jump
+     * functions are kept for them, so {@link #getJumpFunctions(SootMethod)} only covers the statements the facts
+     * were propagated through.
+     *
+     * @param paths receives the jumps, so that the witnesses of the findings stay connected
+     */
+    public void setSparse(DefUseChains defUse, PathTracker paths) {
+        this.defUse = defUse;
+        this.paths = paths;
+    }
+
+    /**
+     * Keeps field taint in {@code fieldTaint} beside the solver, see {@link FieldTaintTable}. A load that the solver
+     * passed before its field became tainted is re-seeded with the loaded local at its successors, in the context of
+     * the zero fact, as if the load had found the field tainted in the first place.
+     */
+    public void setFieldTaintTable(FieldTaintTable fieldTaint) {
+        fieldTaint.setReseeder(this::reseed);
+    }
+
+    private void reseed(Stmt load, DataFlowFact loaded) {
+        for (Stmt succ : icfg.getSuccsOf(load)) {
+            propagate(DataFlowFact.getZeroInstance(), succ, loaded, EdgeIdentity.v(), null, false);
+        }
+    }
+
+    /**
+     * Limits the run. Call this before {@link #solve()}.
+     *
+     * @param timeBudgetNanos the time {@link #solve()} may take, measured from its start; approximate, as the clock is
+     *                        only read every {@value #CLOCK_INTERVAL} propagations
+     * @param factBudget      the facts the solver may propagate to statements; a fact counts again at each
+     *                        statement it reaches, and possibly more than once there, so this bounds the path edges
+     */
+    public void setBudget(long timeBudgetNanos, long factBudget) {
+        this.timeBudgetNanos = timeBudgetNanos;
+        this.factBudget = factBudget;
+    }
+
+    /**
+     * @return the budget that stopped the run, empty if the run completed
+     */
+    public Optional<Budget> getExceededBudget() {
+        return Optional.ofNullable(exceeded);
+    }
+
+    @Override
+    public void solve() {
+        deadline = timeBudgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeBudgetNanos;
+        super.solve();
+    }
+
+    /**
+     * Installs the edges of an earlier run for {@code method}. Call this before {@link #solve()}.
+     */
+    public void restore(SootMethod method, SummaryStore.Summary summary) {
+        Map<DataFlowFact, List<SummaryStore.Edge>> bySource = new HashMap<>();
+        for (SummaryStore.Edge edge : summary.getJumpFunctions()) {
+            jumpFn.addFunction(edge.getSource(), edge.getTarget(), edge.getFact(), EdgeIdentity.v());
+            bySource.computeIfAbsent(edge.getSource(), s -> new ArrayList<>()).add(edge);
+        }
+        for (Stmt startPoint : icfg.getStartPointsOf(method)) {
+            restoredStartPoints.put(startPoint, method);
+            for (SummaryStore.Edge edge : summary.getEndSummaries()) {
+                Table<Stmt, DataFlowFact, EdgeFunction<BinaryDomain>> exits = endSummary.get(startPoint, edge.getSource());
+                if (exits == null) {
+                    exits = HashBasedTable.create();
+                    endSummary.put(startPoint, edge.getSource(), exits);
+                }
+                exits.put(edge.getTarget(), edge.getFact(), EdgeIdentity.v());
+            }
+        }
+        restoredEdges.put(method, bySource);
+    }
+
+    public Set<SootMethod> getRestoredMethods() {
+        return restoredEdges.keySet();
+    }
+
+    /**
+     * @return the jump functions of {@code method} after solving, i.e. the facts at its statements per entry fact
+     */
+    public List<SummaryStore.Edge> getJumpFunctions(SootMethod method) {
+        List<SummaryStore.Edge> edges = new ArrayList<>();
+        for (Stmt stmt : method.getBody().getStmts()) {
+            for (Table.Cell<DataFlowFact, DataFlowFact, EdgeFunction<BinaryDomain>> cell : jumpFn.lookupByTarget(stmt)) {
+                edges.add(new SummaryStore.Edge(cell.getRowKey(), stmt, cell.getColumnKey()));
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * @return the end summaries of {@code method} after solving, i.e. the facts at its exits per entry fact
+     */
+    public List<SummaryStore.Edge> getEndSummaries(SootMethod method) {
+        List<SummaryStore.Edge> edges = new ArrayList<>();
+        for (Stmt startPoint : icfg.getStartPointsOf(method)) {
+            for (Map.Entry<DataFlowFact, Table<Stmt, DataFlowFact, EdgeFunction<BinaryDomain>>> e : endSummary.row(startPoint).entrySet()) {
+                for (Table.Cell<Stmt, DataFlowFact, EdgeFunction<BinaryDomain>> cell : e.getValue().cellSet()) {
+                    edges.add(new SummaryStore.Edge(e.getKey(), cell.getRowKey(), cell.getColumnKey()));
+                }
+            }
+        }
+        return edges;
+    }
+
+    @Override
+    protected void scheduleEdgeProcessing(PathEdge<Stmt, DataFlowFact> edge) {
+        scheduledEdges.increment();
+        super.scheduleEdgeProcessing(edge);
+    }
+
+    /**
+     * @return the path edges scheduled for processing, counted exactly also with several solver threads
+     */
+    public long getPropagationCount() {
+        return scheduledEdges.sum();
+    }
+
+    /**
+     * @return the end summaries after solving, i.e. the (start point, entry fact, exit, exit fact) tuples
+     */
+    public long countEndSummaries() {
+        long count = 0;
+        for (Table<Stmt, DataFlowFact, EdgeFunction<BinaryDomain>> exits : endSummary.values()) {
+            count += exits.size();
+        }
+        return count;
+    }
+
+    /**
+     * @return the incoming edges after solving, i.e. the (start point, entry fact, call site, call fact) tuples
+     */
+    public long countIncomingEdges() {
+        long count = 0;
+        for (Map<Stmt, Set<DataFlowFact>> callers : incoming.values()) {
+            for (Set<DataFlowFact> facts : callers.values()) {
+                count += facts.size();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    protected void propagate(DataFlowFact sourceFact, Stmt targetStmt, DataFlowFact targetFact,
+                             EdgeFunction<BinaryDomain> edgeFunc, Stmt relatedCallSite, boolean isUnbalancedReturn) {
+        if (exceeded != null || isOverBudget()) {
+            return;
+        }
+        if (recorder != null) {
+            recorder.accept(targetStmt, targetFact);
+        }
+        if (sourceFact == targetFact && !restoredStartPoints.isEmpty()) {
+            SootMethod restored = restoredStartPoints.get(targetStmt);
+            if (restored != null) {
+                replay(restored, sourceFact);
+            }
+        }
+        if (defUse != null && !defUse.isRelevant(targetStmt, targetFact)) {
+            jump(sourceFact, targetStmt, targetFact, edgeFunc, relatedCallSite, isUnbalancedReturn);
+            return;
+        }
+        super.propagate(sourceFact, targetStmt, targetFact, edgeFunc, relatedCallSite, isUnbalancedReturn);
+    }
+
+    private boolean isOverBudget() {
+        if (timeBudgetNanos == Long.MAX_VALUE && factBudget == Long.MAX_VALUE) {
+            return false;
+        }
+        long propagated = budgetedPropagations.incrementAndGet();
+        if (propagated > factBudget) {
+            exceeded = Budget.FACTS;
+        } else if (propagated % CLOCK_INTERVAL == 0 && System.nanoTime() > deadline) {
+            exceeded = Budget.TIME;
+        }
+        return exceeded != null;
+    }
+
+    private void jump(DataFlowFact sourceFact, Stmt targetStmt, DataFlowFact targetFact,
+                      EdgeFunction<BinaryDomain> edgeFunc, Stmt relatedCallSite, boolean isUnbalancedReturn) {
+        DefUseChains.Jump jump = defUse.jump(targetStmt, targetFact);
+        if (recorder != null) {
+            for (Stmt skipped : jump.getSkipped()) {
+                recorder.accept(skipped, targetFact);
+            }
+        }
+        for (Stmt next : jump.getTargets()) {
+            paths.record(targetStmt, targetFact, next, targetFact);
+            propagate(sourceFact, next, targetFact, edgeFunc, relatedCallSite, isUnbalancedReturn);
+        }
+    }
+
+    /**
+     * Redoes the side effects of the restored edges of {@code method} for {@code entryFact}: the findings at its
+     * sinks and the facts it passes to its callees.
+     */
+    private void replay(SootMethod method, DataFlowFact entryFact) {
+        List<SummaryStore.Edge> edges = restoredEdges.get(method).get(entryFact);
+        if (edges == null || !replayed.add(Arrays.asList(method, entryFact))) {
+            return;
+        }
+        for (SummaryStore.Edge edge : edges) {
+            Stmt stmt = edge.getTarget();
+            DataFlowFact fact = edge.getFact();
+            if (recorder != null) {
+                recorder.accept(stmt, fact);
+            }
+            if (!icfg.isCallStmt(stmt)) {
+                continue;
+            }
+            if (taintFlowFunctions.classify(stmt).isSink()) {
+                for (Stmt returnSite : icfg.getReturnSitesOfCallAt(stmt)) {
+                    flowFunctions.getCallToReturnFlowFunction(stmt, returnSite).computeTargets(fact);
+                }
+            }
+            for (SootMethod callee : icfg.getCalleesOfCallAt(stmt)) {
+                FlowFunction<DataFlowFact> callFlow = flowFunctions.getCallFlowFunction(stmt, callee);
+                Collection<Stmt> startPoints = icfg.getStartPointsOf(callee);
+                for (DataFlowFact calleeFact : callFlow.computeTargets(fact)) {
+                    for (Stmt startPoint : startPoints) {
+                        addIncoming(startPoint, calleeFact, stmt, fact);
+                        propagate(calleeFact, startPoint, calleeFact, EdgeIdentity.v(), stmt, false);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,14 +1,88 @@
 package analysis;
 
+import analysis.report.Finding;
+import analysis.report.FindingWriter;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the findings of the taint analysis. The IFDS solver reports from several threads, so appending is
+ * lock-free and a finding that was already reported for the same rule and statement is ignored.
+ * With a {@link FindingWriter} attached, findings are streamed out; only two 64-bit hashes of each are kept in memory.
+ * A distinct finding whose first hash collides with an earlier one is still reported and counted in
+ * {@link #getHashCollisions()}.
+ */
 public class VulnerabilityReporter {
 
-    private int reporterVulnerabilities;
+    private final Queue<Finding> findings = new ConcurrentLinkedQueue<>();
+    // Finding#keyHash() -> Finding#keyCheck() of the first finding reported with that hash
+    private final ConcurrentHashMap<Long, Long> seen = new ConcurrentHashMap<>();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder anonymous = new LongAdder();
+    private final FindingWriter writer;
+
+    public VulnerabilityReporter() {
+        this(null);
+    }
+
+    public VulnerabilityReporter(FindingWriter writer) {
+        this.writer = writer;
+    }
 
+    /**
+     * Counts a vulnerability without location information. Such reports are not deduplicated.
+     */
     public void reportVulnerability() {
-        reporterVulnerabilities++;
+        anonymous.increment();
+    }
+
+    public void reportVulnerability(String ruleId, SootMethod method, Stmt stmt, List<String> path) {
+        Finding finding = new Finding(ruleId, method.getSignature().toString(), stmt.toString(),
+                stmt.getPositionInfo().getStmtPosition().getFirstLine(), path);
+        long check = finding.keyCheck();
+        Long previous = seen.putIfAbsent(finding.keyHash(), check);
+        if (previous != null) {
+            if (previous == check) {
+                return;
+            }
+            collisions.increment();
+        }
+        if (writer == null) {
+            findings.add(finding);
+            return;
+        }
+        try {
+            writer.write(finding);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write finding " + finding, e);
+        }
+    }
+
+    /**
+     * Findings kept in memory, in reporting order. Empty when a {@link FindingWriter} is attached.
+     */
+    public List<Finding> getFindings() {
+        return new ArrayList<>(findings);
     }
 
     public int getReportedVulnerabilities() {
-        return reporterVulnerabilities;
+        return seen.size() + collisions.intValue() + anonymous.intValue();
+    }
+
+    /**
+     * Number of reported findings whose {@link Finding#keyHash()} matched an earlier, distinct finding. A finding
+     * that repeats such a colliding one is reported again, so these may include duplicates.
+     */
+    public int getHashCollisions() {
+        return collisions.intValue();
     }
 }
@@ -0,0 +1,177 @@
+package analysis.alias;
+
+import analysis.fact.AccessPath;
+import analysis.fact.DataFlowFact;
+import heros.InterproceduralCFG;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.expr.JCastExpr;
+import sootup.core.jimple.common.ref.JInstanceFieldRef;
+import sootup.core.jimple.common.stmt.AbstractDefinitionStmt;
+import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * On-demand alias search in the style of FlowDroid. It only runs when the forward analysis taints a field through
+ * a store {@code x.f = y}: it walks the method backwards from the store and collects the locals that hold the same
+ * object as {@code x} at the store, so that {@code a.f} is tainted as well for each such alias {@code a}.
+ * <p>
+ * The search is intraprocedural and follows local copies and casts; aliases through the heap or across calls are
+ * not found. Results are cached per store and access path and shared by all solver threads.
+ */
+public class AliasSearch {
+
+    private final InterproceduralCFG<Stmt, SootMethod> icfg;
+    private final Map<Stmt, Set<Local>> aliasesAtStore = new ConcurrentHashMap<>();
+    private final Map<Stmt, Map<AccessPath, Set<DataFlowFact>>> factsAtStore = new ConcurrentHashMap<>();
+
+    public AliasSearch(InterproceduralCFG<Stmt, SootMethod> icfg) {
+        this.icfg = icfg;
+    }
+
+    /**
+     * @param store      a statement {@code x.f = y}
+     * @param accessPath the path below {@code x} that receives the taint, starting with {@code f}
+     * @return the same taint on every alias of {@code x} at the store, without the fact on {@code x} itself
+     */
+    public Set<DataFlowFact> taintAliases(Stmt store, AccessPath accessPath) {
+        return factsAtStore.computeIfAbsent(store, s -> new ConcurrentHashMap<>()).computeIfAbsent(accessPath, path -> {
+            Set<Local> aliases = getAliases(store);
+            if (aliases.isEmpty()) {
+                return Collections.emptySet();
+            }
+            Set<DataFlowFact> facts = new HashSet<>();
+            for (Local alias : aliases) {
+                facts.add(DataFlowFact.of(alias, path));
+            }
+            return Collections.unmodifiableSet(facts);
+        });
+    }
+
+    /**
+     * @return the locals other than the base that may point to the object written by {@code store}
+     */
+    public Set<Local> getAliases(Stmt store) {
+        return aliasesAtStore.computeIfAbsent(store, this::search);
+    }
+
+    public int size() {
+        return aliasesAtStore.size();
+    }
+
+    private Set<Local> search(Stmt store) {
+        if (!(store instanceof JAssignStmt) || !(((JAssignStmt) store).getLeftOp() instanceof JInstanceFieldRef)) {
+            return Collections.emptySet();
+        }
+        Local base = ((JInstanceFieldRef) ((JAssignStmt) store).getLeftOp()).getBase();
+        Set<Local> aliases = new LinkedHashSet<>();
+        // state right after each statement, going backwards from the store
+        Map<Stmt, State> after = new HashMap<>();
+        Deque<Stmt> worklist = new ArrayDeque<>();
+        State initial = new State(Collections.singleton(base), Collections.emptySet());
+        for (Stmt pred : icfg.getPredsOf(store)) {
+            if (join(after, pred, initial)) {
+                worklist.add(pred);
+            }
+        }
+        while (!worklist.isEmpty()) {
+            Stmt stmt = worklist.poll();
+            State before = transfer(stmt, after.get(stmt), aliases);
+            if (before.holders.isEmpty()) {
+                continue;
+            }
+            for (Stmt pred : icfg.getPredsOf(stmt)) {
+                if (join(after, pred, before)) {
+                    worklist.add(pred);
+                }
+            }
+        }
+        aliases.remove(base);
+        return Collections.unmodifiableSet(aliases);
+    }
+
+    /**
+     * Computes the state before {@code stmt} and records the aliases created by it.
+     */
+    private static State transfer(Stmt stmt, State after, Set<Local> aliases) {
+        if (!(stmt instanceof AbstractDefinitionStmt) || !(((AbstractDefinitionStmt) stmt).getLeftOp() instanceof Local)) {
+            return after;
+        }
+        Local defined = (Local) ((AbstractDefinitionStmt) stmt).getLeftOp();
+        Value rightOp = ((AbstractDefinitionStmt) stmt).getRightOp();
+        if (rightOp instanceof JCastExpr) {
+            rightOp = ((JCastExpr) rightOp).getOp();
+        }
+        Set<Local> holders = new HashSet<>(after.holders);
+        Set<Local> redefined = new HashSet<>(after.redefined);
+        if (holders.remove(defined)) {
+            // the object flows into the defined local here; before, it is only held by the copied local
+            if (rightOp instanceof Local) {
+                holders.add((Local) rightOp);
+            }
+        } else if (rightOp instanceof Local && holders.contains(rightOp) && !redefined.contains(defined)) {
+            // a copy of the object that is still alive at the store
+            aliases.add(defined);
+        }
+        redefined.add(defined);
+        return new State(holders, redefined);
+    }
+
+    /**
+     * May-alias join: a local holds the object if it does on some path, and it is only considered overwritten
+     * if it is on all paths.
+     */
+    private static boolean join(Map<Stmt, State> after, Stmt stmt, State incoming) {
+        State old = after.get(stmt);
+        if (old == null) {
+            after.put(stmt, incoming);
+            return true;
+        }
+        Set<Local> holders = new HashSet<>(old.holders);
+        holders.addAll(incoming.holders);
+        Set<Local> redefined = new HashSet<>(old.redefined);
+        redefined.retainAll(incoming.redefined);
+        State joined = new State(holders, redefined);
+        if (joined.equals(old)) {
+            return false;
+        }
+        after.put(stmt, joined);
+        return true;
+    }
+
+    private static final class State {
+        // locals that hold the object written by the store
+        private final Set<Local> holders;
+        // locals that are assigned between this point and the store
+        private final Set<Local> redefined;
+
+        State(Set<Local> holders, Set<Local> redefined) {
+            this.holders = holders;
+            this.redefined = redefined;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * holders.hashCode() + redefined.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof State))
+                return false;
+            State other = (State) obj;
+            return holders.equals(other.holders) && redefined.equals(other.redefined);
+        }
+    }
+}
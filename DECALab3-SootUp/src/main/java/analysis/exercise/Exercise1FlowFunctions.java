@@ -1,5 +1,6 @@
 package analysis.exercise;
 
+import analysis.StmtClassification;
 import analysis.TaintAnalysisFlowFunctions;
 import analysis.VulnerabilityReporter;
 import analysis.fact.DataFlowFact;
@@ -7,8 +8,6 @@ import com.google.common.collect.Sets;
 import heros.FlowFunction;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.Value;
-import sootup.core.jimple.common.expr.AbstractInstanceInvokeExpr;
-import sootup.core.jimple.common.stmt.JAssignStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootMethod;
 
@@ -25,21 +24,20 @@ public class Exercise1FlowFunctions extends TaintAnalysisFlowFunctions {
 
     @Override
     public FlowFunction<DataFlowFact> getCallFlowFunction(Stmt callSite, SootMethod callee) {
+        if (!callee.hasBody() || callSite.getInvokeExpr() == null) {
+            return traced(callSite, KILL_ALL);
+        }
         return fact -> {
-            if (fact.equals(DataFlowFact.getZeroInstance()))
+            if (fact == DataFlowFact.getZeroInstance())
                 return Collections.emptySet();
             prettyPrint(callSite, fact);
             Set<DataFlowFact> out = Sets.newHashSet();
 
-            if (!callee.hasBody() || callSite.getInvokeExpr() == null) {
-                return out;
-            }
-
             for (int i = 0; i < callSite.getInvokeExpr().getArgCount(); i++) {
                 Value arg = callSite.getInvokeExpr().getArg(i);
                 if (fact.getVariable().equals(arg)) {
                     Local paramLocal = callee.getBody().getParameterLocal(i);
-                    out.add(new DataFlowFact(paramLocal));
+                    out.add(DataFlowFact.of(paramLocal));
                 }
             }
 
@@ -48,66 +46,53 @@ public class Exercise1FlowFunctions extends TaintAnalysisFlowFunctions {
     }
 
     public FlowFunction<DataFlowFact> getCallToReturnFlowFunction(final Stmt call, Stmt returnSite) {
+        final StmtClassification info = classify(call);
+        if (info.isIdentity()) {
+            return traced(call, IDENTITY);
+        }
         return val -> {
+            if (val == DataFlowFact.getZeroInstance()) {
+                // the solver keeps the zero fact itself
+                return info.getSourceFacts();
+            }
 
             Set<DataFlowFact> out = Sets.newHashSet();
-            out.add(val);
-            modelStringOperations(val, out, call);
-
-            if (val.equals(DataFlowFact.getZeroInstance())) {
-
-                if (call instanceof JAssignStmt
-                        && call.getInvokeExpr() != null
-                        && "getParameter".equals(call.getInvokeExpr().getMethodSignature().getName())) {
-                    Value leftOp = ((JAssignStmt) call).getLeftOp();
-                    if (leftOp instanceof Local) {
-                        out.add(new DataFlowFact((Local) leftOp));
-                    }
-                }
-
+            if (!info.kills(val.getVariable())) {
+                out.add(val);
             }
-            if (call.toString().contains("executeQuery")) {
-                Value arg = call.getInvokeExpr().getArg(0);
-                if (val.getVariable().equals(arg)) {
-                    reporter.reportVulnerability();
-                }
+            modelStringOperations(val, out, info);
+
+            for (String category : info.getSinkCategories(val.getVariable())) {
+                reporter.reportVulnerability(category, icfg.getMethodOf(call), call, witness(call, val));
             }
             return out;
         };
     }
 
     private void modelStringOperations(DataFlowFact fact, Set<DataFlowFact> out,
-                                       Stmt callSiteStmt) {
-        Exercise3FlowFunctions.handleCallSite(fact, out, callSiteStmt);
-
-
-        /*For any call x = var.toString(), if the base variable var is tainted, then x is tainted.*/
-        if (callSiteStmt instanceof JAssignStmt && callSiteStmt.toString().contains("toString()")) {
-            if (callSiteStmt.getInvokeExpr() instanceof AbstractInstanceInvokeExpr) {
-                AbstractInstanceInvokeExpr AbstractInstanceInvokeExpr = (AbstractInstanceInvokeExpr) callSiteStmt.getInvokeExpr();
-                if (fact.getVariable().equals(AbstractInstanceInvokeExpr.getBase())) {
-                    Value leftOp = ((JAssignStmt) callSiteStmt).getLeftOp();
-                    if (leftOp instanceof Local) {
-                        out.add(new DataFlowFact((Local) leftOp));
-                    }
-                }
-            }
-        }
+                                       StmtClassification callSite) {
+        Exercise3FlowFunctions.handleCallSite(fact, out, callSite);
     }
 
     @Override
     public FlowFunction<DataFlowFact> getNormalFlowFunction(final Stmt curr, Stmt succ) {
+        final StmtClassification info = classify(curr);
+        if (info.isIdentity()) {
+            return traced(curr, IDENTITY);
+        }
+        final Local leftOp = info.getAssignedLocal();
         return fact -> {
+            if (fact == DataFlowFact.getZeroInstance()) {
+                return Collections.emptySet();
+            }
             prettyPrint(curr, fact);
             Set<DataFlowFact> out = Sets.newHashSet();
-            out.add(fact);
+            if (!info.kills(fact.getVariable())) {
+                out.add(fact);
+            }
 
-            if (curr instanceof JAssignStmt) {
-                Value leftOp = ((JAssignStmt) curr).getLeftOp();
-                Value rightOp = ((JAssignStmt) curr).getRightOp();
-                if (leftOp instanceof Local && rightOp instanceof Local && fact.getVariable().equals(rightOp)) {
-                    out.add(new DataFlowFact((Local) leftOp));
-                }
+            if (leftOp != null && info.getRightOp() instanceof Local && fact.getVariable().equals(info.getRightOp())) {
+                out.add(DataFlowFact.of(leftOp));
             }
 
             return out;
@@ -116,9 +101,6 @@ public class Exercise1FlowFunctions extends TaintAnalysisFlowFunctions {
 
     @Override
     public FlowFunction<DataFlowFact> getReturnFlowFunction(Stmt callSite, SootMethod callee, Stmt exitStmt, Stmt retSite) {
-        return fact -> {
-            prettyPrint(callSite, fact);
-            return Collections.emptySet();
-        };
+        return traced(callSite, KILL_ALL);
     }
 }
@@ -1,20 +1,34 @@
 package analysis.exercise;
 
+import analysis.StmtClassification;
 import analysis.TaintAnalysisFlowFunctions;
 import analysis.VulnerabilityReporter;
 import analysis.fact.DataFlowFact;
+import analysis.fieldbased.FieldTaintTable;
 import com.google.common.collect.Sets;
 import heros.FlowFunction;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.Value;
-import sootup.core.jimple.common.expr.AbstractInstanceInvokeExpr;
-import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JCastExpr;
+import sootup.core.jimple.common.ref.JFieldRef;
+import sootup.core.jimple.common.stmt.JReturnStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootMethod;
+import sootup.core.signatures.FieldSignature;
 
 import java.util.Collections;
 import java.util.Set;
 
+/**
+ * Field-based taint analysis: a store of a tainted value into {@code x.f} taints the field {@code f} of all objects,
+ * see {@link DataFlowFact#of(FieldSignature)}, and every later load of {@code f} is tainted.
+ * Field facts are never killed and flow into and out of every callee. Cheaper but less precise than
+ * {@link Exercise3FlowFunctions}.
+ * <p>
+ * With a {@link FieldTaintTable}, tainted fields are kept in the table instead: stores add to it, and a load of a
+ * tainted field generates the loaded local from the zero fact, i.e. in every context in which the load is reached.
+ */
 public class Exercise2FlowFunctions extends TaintAnalysisFlowFunctions {
 
     private final VulnerabilityReporter reporter;
@@ -25,75 +39,106 @@ public class Exercise2FlowFunctions extends TaintAnalysisFlowFunctions {
 
     @Override
     public FlowFunction<DataFlowFact> getCallFlowFunction(Stmt callSite, SootMethod callee) {
+        if (!callee.hasBody() || callSite.getInvokeExpr() == null) {
+            return traced(callSite, KILL_ALL);
+        }
         return fact -> {
             if (fact == DataFlowFact.getZeroInstance()) {
                 return Collections.emptySet();
             }
 
             prettyPrint(callSite, fact);
+            if (fact.isFieldBased()) {
+                return Collections.singleton(fact);
+            }
             Set<DataFlowFact> out = Sets.newHashSet();
 
-            //TODO: Implement Exercise 1c) here
-            //TODO: Implement interprocedural part of Exercise 2 here
-
+            AbstractInvokeExpr invokeExpr = callSite.getInvokeExpr();
+            for (int i = 0; i < invokeExpr.getArgCount(); i++) {
+                if (fact.getVariable().equals(invokeExpr.getArg(i))) {
+                    out.add(DataFlowFact.of(callee.getBody().getParameterLocal(i)));
+                }
+            }
 
             return out;
         };
     }
 
     public FlowFunction<DataFlowFact> getCallToReturnFlowFunction(final Stmt callSiteStmt, Stmt returnSite) {
+        final StmtClassification info = classify(callSiteStmt);
+        if (info.isIdentity()) {
+            return traced(callSiteStmt, IDENTITY);
+        }
         return val -> {
-
-            Set<DataFlowFact> out = Sets.newHashSet();
-            out.add(val);
-            modelStringOperations(val, out, callSiteStmt);
-
             if (val == DataFlowFact.getZeroInstance()) {
+                // the solver keeps the zero fact itself
+                return info.getSourceFacts();
+            }
 
-                //TODO: Implement Exercise 1a) here
-
+            Set<DataFlowFact> out = Sets.newHashSet();
+            if (!info.kills(val.getVariable())) {
+                out.add(val);
             }
+            modelStringOperations(val, out, info);
 
-            if (callSiteStmt.toString().contains("executeQuery")) {
-                Value arg = callSiteStmt.getInvokeExpr().getArg(0);
-                if (val.getVariable().equals(arg)) {
-                    reporter.reportVulnerability();
-                }
+            for (String category : info.getSinkCategories(val.getVariable())) {
+                reporter.reportVulnerability(category, icfg.getMethodOf(callSiteStmt), callSiteStmt, witness(callSiteStmt, val));
             }
 
             return out;
         };
     }
 
-    private void modelStringOperations(DataFlowFact fact, Set<DataFlowFact> out,
-                                       Stmt callSiteStmt) {
-        Exercise3FlowFunctions.handleCallSite(fact, out, callSiteStmt);
-
-        /*For any call x = var.toString(), if the base variable var is tainted, then x is tainted.*/
-        if (callSiteStmt instanceof JAssignStmt && callSiteStmt.toString().contains("toString()")) {
-            if (callSiteStmt.getInvokeExpr() instanceof AbstractInstanceInvokeExpr) {
-                AbstractInstanceInvokeExpr instanceInvokeExpr = (AbstractInstanceInvokeExpr) callSiteStmt.getInvokeExpr();
-
-                if (fact.getVariable().equals(instanceInvokeExpr.getBase())) {
-                    Value leftOp = ((JAssignStmt) callSiteStmt).getLeftOp();
-                    if (leftOp instanceof Local) {
-                        out.add(new DataFlowFact((Local) leftOp));
-                    }
-                }
-
-            }
-        }
+    private void modelStringOperations(DataFlowFact fact, Set<DataFlowFact> out, StmtClassification callSite) {
+        Exercise3FlowFunctions.handleCallSite(fact, out, callSite);
     }
 
     @Override
     public FlowFunction<DataFlowFact> getNormalFlowFunction(final Stmt curr, Stmt succ) {
+        final StmtClassification info = classify(curr);
+        if (info.isIdentity()) {
+            return traced(curr, IDENTITY);
+        }
+        final Value leftOp = info.getLeftOp();
+        final Value rightOp = info.getRightOp() instanceof JCastExpr ? ((JCastExpr) info.getRightOp()).getOp() : info.getRightOp();
+        final FieldTaintTable table = fieldTaint;
         return fact -> {
+            if (fact == DataFlowFact.getZeroInstance()) {
+                if (table != null && leftOp instanceof Local && rightOp instanceof JFieldRef) {
+                    DataFlowFact loaded = DataFlowFact.of((Local) leftOp);
+                    return table.load(((JFieldRef) rightOp).getFieldSignature(), curr, loaded)
+                            ? Collections.singleton(loaded) : Collections.emptySet();
+                }
+                return Collections.emptySet();
+            }
             prettyPrint(curr, fact);
             Set<DataFlowFact> out = Sets.newHashSet();
-            out.add(fact);
+            // the dummy local of a field fact is never assigned, so field facts are never killed
+            if (!info.kills(fact.getVariable())) {
+                out.add(fact);
+            }
 
-            //TODO: Implement Exercise 1b) here
-            //TODO: Implement cases for field load and field store statement of Exercise 2) here
+            if (leftOp instanceof Local && rightOp instanceof Local) {
+                // x = y
+                if (fact.getVariable().equals(rightOp)) {
+                    out.add(DataFlowFact.of((Local) leftOp));
+                }
+            } else if (leftOp instanceof Local && rightOp instanceof JFieldRef) {
+                // x = y.f or x = C.f
+                if (fact.isFieldBased() && fact.getFieldSignature().equals(((JFieldRef) rightOp).getFieldSignature())) {
+                    out.add(DataFlowFact.of((Local) leftOp));
+                }
+            } else if (leftOp instanceof JFieldRef && rightOp instanceof Local) {
+                // x.f = y or C.f = y
+                if (fact.getVariable().equals(rightOp)) {
+                    FieldSignature field = ((JFieldRef) leftOp).getFieldSignature();
+                    if (table != null) {
+                        table.store(field);
+                    } else {
+                        out.add(DataFlowFact.of(field));
+                    }
+                }
+            }
 
             return out;
         };
@@ -101,8 +146,16 @@ public class Exercise2FlowFunctions extends TaintAnalysisFlowFunctions {
 
     @Override
     public FlowFunction<DataFlowFact> getReturnFlowFunction(Stmt callSite, SootMethod callee, Stmt exitStmt, Stmt retSite) {
+        final StmtClassification info = classify(callSite);
         return fact -> {
             prettyPrint(callSite, fact);
+            if (fact.isFieldBased()) {
+                return Collections.singleton(fact);
+            }
+            if (exitStmt instanceof JReturnStmt && fact.getVariable().equals(((JReturnStmt) exitStmt).getOp())
+                    && info.getAssignedLocal() != null) {
+                return Collections.singleton(DataFlowFact.of(info.getAssignedLocal()));
+            }
             return Collections.emptySet();
         };
     }
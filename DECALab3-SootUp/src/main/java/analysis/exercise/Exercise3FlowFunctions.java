@@ -1,31 +1,76 @@
 package analysis.exercise;
 
+import analysis.StmtClassification;
 import analysis.TaintAnalysisFlowFunctions;
 import analysis.VulnerabilityReporter;
+import analysis.alias.AliasSearch;
+import analysis.fact.AccessPath;
 import analysis.fact.DataFlowFact;
 import com.google.common.collect.Sets;
 import heros.FlowFunction;
+import heros.InterproceduralCFG;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.Value;
 import sootup.core.jimple.common.expr.AbstractInstanceInvokeExpr;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JCastExpr;
 import sootup.core.jimple.common.ref.JInstanceFieldRef;
 import sootup.core.jimple.common.stmt.JAssignStmt;
+import sootup.core.jimple.common.stmt.JReturnStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootMethod;
 
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Field-sensitive taint analysis on access paths. A fact {@code a.b.c} means the object reached over that field chain
+ * is tainted; chains longer than the k-limit are truncated, see {@link AccessPath}.
+ * When a field store is tainted, the aliases of the written object are found on demand, see {@link AliasSearch}.
+ */
 public class Exercise3FlowFunctions extends TaintAnalysisFlowFunctions {
 
     private final VulnerabilityReporter reporter;
+    private final int k;
+    private final Map<SootMethod, Set<Local>> reassigned = new ConcurrentHashMap<>();
+    private AliasSearch aliasSearch;
 
     public Exercise3FlowFunctions(VulnerabilityReporter reporter) {
+        this(reporter, AccessPath.DEFAULT_K);
+    }
+
+    /**
+     * @param k maximal number of fields of an access path
+     */
+    public Exercise3FlowFunctions(VulnerabilityReporter reporter, int k) {
         this.reporter = reporter;
+        this.k = k;
+    }
+
+    @Override
+    public void setICFG(InterproceduralCFG<Stmt, SootMethod> icfg) {
+        super.setICFG(icfg);
+        this.aliasSearch = new AliasSearch(icfg);
+    }
+
+    @Override
+    public long fingerprint() {
+        // the access path limit decides which facts exist
+        return 31 * super.fingerprint() + k;
+    }
+
+    public AliasSearch getAliasSearch() {
+        return aliasSearch;
     }
 
     @Override
     public FlowFunction<DataFlowFact> getCallFlowFunction(Stmt callSite, SootMethod callee) {
+        if (!callee.hasBody() || callSite.getInvokeExpr() == null) {
+            return traced(callSite, KILL_ALL);
+        }
         return fact -> {
 
             if (fact == DataFlowFact.getZeroInstance()) {
@@ -35,76 +80,103 @@ public class Exercise3FlowFunctions extends TaintAnalysisFlowFunctions {
             prettyPrint(callSite, fact);
             Set<DataFlowFact> out = Sets.newHashSet();
 
-            //TODO: Implement Exercise 1c) here
-            //TODO: Implement interprocedural part of Exercise 3 here.
+            AbstractInvokeExpr invokeExpr = callSite.getInvokeExpr();
+            for (int i = 0; i < invokeExpr.getArgCount(); i++) {
+                if (fact.getVariable().equals(invokeExpr.getArg(i))) {
+                    out.add(DataFlowFact.of(callee.getBody().getParameterLocal(i), fact.getAccessPath()));
+                }
+            }
+            if (!callee.isStatic() && invokeExpr instanceof AbstractInstanceInvokeExpr
+                    && fact.getVariable().equals(((AbstractInstanceInvokeExpr) invokeExpr).getBase())) {
+                out.add(DataFlowFact.of(callee.getBody().getThisLocal(), fact.getAccessPath()));
+            }
 
             return out;
         };
     }
 
     public FlowFunction<DataFlowFact> getCallToReturnFlowFunction(final Stmt call, Stmt returnSite) {
+        final StmtClassification info = classify(call);
+        if (info.isIdentity()) {
+            return traced(call, IDENTITY);
+        }
         return val -> {
-
-            Set<DataFlowFact> out = Sets.newHashSet();
-            out.add(val);
-            modelStringOperations(val, out, call);
-
             if (val == DataFlowFact.getZeroInstance()) {
+                // the solver keeps the zero fact itself
+                return info.getSourceFacts();
+            }
 
-                //TODO: Implement Exercise 1a) here
-
+            Set<DataFlowFact> out = Sets.newHashSet();
+            if (!info.kills(val.getVariable())) {
+                out.add(val);
             }
-            if (call.toString().contains("executeQuery")) {
-                Value arg = call.getInvokeExpr().getArg(0);
-                if (val.getVariable().equals(arg)) {
-                    reporter.reportVulnerability();
+            modelStringOperations(val, out, info);
+
+            // only the argument itself reaches the sink, not the objects behind its fields
+            if (val.getAccessPath().isEmpty()) {
+                for (String category : info.getSinkCategories(val.getVariable())) {
+                    reporter.reportVulnerability(category, icfg.getMethodOf(call), call, witness(call, val));
                 }
             }
             return out;
         };
     }
 
-    private void modelStringOperations(DataFlowFact fact, Set<DataFlowFact> out, Stmt callSiteStmt) {
-        handleCallSite(fact, out, callSiteStmt);
-
-        /*For any call x = var.toString(), if the base variable var is tainted, then x is tainted.*/
-        if (callSiteStmt instanceof JAssignStmt && callSiteStmt.toString().contains("toString()")) {
-            if (callSiteStmt.getInvokeExpr() instanceof AbstractInstanceInvokeExpr) {
-                AbstractInstanceInvokeExpr instanceInvokeExpr = (AbstractInstanceInvokeExpr) callSiteStmt.getInvokeExpr();
-                if (fact.getVariable().equals(instanceInvokeExpr.getBase())) {
-                    Value leftOp = ((JAssignStmt) callSiteStmt).getLeftOp();
-                    if (leftOp instanceof Local) {
-                        out.add(new DataFlowFact((Local) leftOp));
-                    }
-                }
-            }
-        }
+    private void modelStringOperations(DataFlowFact fact, Set<DataFlowFact> out, StmtClassification callSite) {
+        handleCallSite(fact, out, callSite);
     }
 
-    static void handleCallSite(DataFlowFact fact, Set<DataFlowFact> out, Stmt callSiteStmt) {
-        if (callSiteStmt instanceof JAssignStmt && callSiteStmt.toString().contains("java.lang.StringBuilder append(") && callSiteStmt.getInvokeExpr() instanceof AbstractInstanceInvokeExpr) {
-            Value arg0 = callSiteStmt.getInvokeExpr().getArg(0);
-            Value base = ((AbstractInstanceInvokeExpr) callSiteStmt.getInvokeExpr()).getBase();
-            /*Does the propagated value match the first parameter of the append call or the base variable*/
-            if (fact.getVariable().equals(arg0) || fact.getVariable().equals(base)) {
-                /*Yes, then taint the left side of the assignment*/
-                Value leftOp = ((JAssignStmt) callSiteStmt).getLeftOp();
-                if (leftOp instanceof Local) {
-                    out.add(new DataFlowFact((Local) leftOp));
-                }
+    /*
+     * Applies the propagators of the taint model, e.g. for x = builder.append(arg) or x = var.toString():
+     * if the propagated value is the argument or the base variable, the left side of the assignment is tainted.
+     */
+    static void handleCallSite(DataFlowFact fact, Set<DataFlowFact> out, StmtClassification callSite) {
+        for (Value target : callSite.getPropagationTargets(fact.getVariable())) {
+            if (target instanceof Local) {
+                out.add(DataFlowFact.of((Local) target));
             }
         }
     }
 
     @Override
     public FlowFunction<DataFlowFact> getNormalFlowFunction(final Stmt curr, Stmt succ) {
+        final StmtClassification info = classify(curr);
+        if (info.isIdentity()) {
+            return traced(curr, IDENTITY);
+        }
+        final Value leftOp = info.getLeftOp();
+        final Value rightOp = info.getRightOp() instanceof JCastExpr ? ((JCastExpr) info.getRightOp()).getOp() : info.getRightOp();
         return fact -> {
+            if (fact == DataFlowFact.getZeroInstance()) {
+                return Collections.emptySet();
+            }
             prettyPrint(curr, fact);
             Set<DataFlowFact> out = Sets.newHashSet();
-            out.add(fact);
+            // x = ... overwrites x and with it every field path below x
+            if (!info.kills(fact.getVariable())) {
+                out.add(fact);
+            }
 
-            //TODO: Implement Exercise 1b) here
-            //TODO: Implement cases for field load and field store statement of Exercise 3) here
+            if (leftOp instanceof Local && rightOp instanceof Local) {
+                // x = y
+                if (fact.getVariable().equals(rightOp)) {
+                    out.add(DataFlowFact.of((Local) leftOp, fact.getAccessPath()));
+                }
+            } else if (leftOp instanceof Local && rightOp instanceof JInstanceFieldRef) {
+                // x = y.f
+                JInstanceFieldRef load = (JInstanceFieldRef) rightOp;
+                if (fact.getVariable().equals(load.getBase()) && fact.getAccessPath().startsWith(load.getFieldSignature())) {
+                    out.add(DataFlowFact.of((Local) leftOp, fact.getAccessPath().dropFirst()));
+                }
+            } else if (leftOp instanceof JInstanceFieldRef && rightOp instanceof Local) {
+                // x.f = y
+                JInstanceFieldRef store = (JInstanceFieldRef) leftOp;
+                if (fact.getVariable().equals(rightOp)) {
+                    AccessPath stored = fact.getAccessPath().prepend(store.getFieldSignature(), k);
+                    out.add(DataFlowFact.of(store.getBase(), stored));
+                    out.addAll(aliasSearch.taintAliases(curr, stored));
+                }
+            }
 
             return out;
         };
@@ -112,10 +184,48 @@ public class Exercise3FlowFunctions extends TaintAnalysisFlowFunctions {
 
     @Override
     public FlowFunction<DataFlowFact> getReturnFlowFunction(Stmt callSite, SootMethod callee, Stmt exitStmt, Stmt retSite) {
+        final StmtClassification info = classify(callSite);
         return fact -> {
             prettyPrint(callSite, fact);
-            return Collections.emptySet();
+            Set<DataFlowFact> out = Sets.newHashSet();
+
+            if (exitStmt instanceof JReturnStmt && fact.getVariable().equals(((JReturnStmt) exitStmt).getOp())
+                    && info.getAssignedLocal() != null) {
+                out.add(DataFlowFact.of(info.getAssignedLocal(), fact.getAccessPath()));
+            }
+            // writes to fields of parameters are visible to the caller, reassigning a parameter is not: once it is
+            // reassigned, its fields may belong to an object the caller never sees
+            if (fact.getAccessPath().isEmpty() || !callee.hasBody() || info.getInvokeExpr() == null
+                    || reassignedLocals(callee).contains(fact.getVariable())) {
+                return out;
+            }
+            AbstractInvokeExpr invokeExpr = info.getInvokeExpr();
+            for (int i = 0; i < invokeExpr.getArgCount(); i++) {
+                if (fact.getVariable().equals(callee.getBody().getParameterLocal(i)) && invokeExpr.getArg(i) instanceof Local) {
+                    out.add(DataFlowFact.of((Local) invokeExpr.getArg(i), fact.getAccessPath()));
+                }
+            }
+            if (!callee.isStatic() && info.getInvokeBase() instanceof Local
+                    && fact.getVariable().equals(callee.getBody().getThisLocal())) {
+                out.add(DataFlowFact.of((Local) info.getInvokeBase(), fact.getAccessPath()));
+            }
+            return out;
         };
     }
 
+    /**
+     * @return the locals of {@code method} that are assigned by a statement other than their identity statement
+     */
+    private Set<Local> reassignedLocals(SootMethod method) {
+        return reassigned.computeIfAbsent(method, m -> {
+            Set<Local> locals = new HashSet<>();
+            for (Stmt stmt : m.getBody().getStmts()) {
+                if (stmt instanceof JAssignStmt && ((JAssignStmt) stmt).getLeftOp() instanceof Local) {
+                    locals.add((Local) ((JAssignStmt) stmt).getLeftOp());
+                }
+            }
+            return locals;
+        });
+    }
+
 }
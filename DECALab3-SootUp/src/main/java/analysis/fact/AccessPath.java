@@ -0,0 +1,140 @@
+package analysis.fact;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import sootup.core.signatures.FieldSignature;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The chain of fields behind the base variable of a {@link DataFlowFact}, e.g. {@code .b.c} in {@code a.b.c}.
+ * Paths longer than the k-limit are cut off and marked as truncated; a truncated path {@code .b.*} stands for
+ * every path that starts with {@code .b}, which keeps the fact domain finite for recursive structures.
+ * Paths are interned like facts, so all facts with the same field chain share one array.
+ */
+public final class AccessPath {
+    private static final Interner<AccessPath> INTERNER = Interners.newWeakInterner();
+    private static final FieldSignature[] NO_FIELDS = new FieldSignature[0];
+
+    public static final AccessPath EMPTY = INTERNER.intern(new AccessPath(NO_FIELDS, false));
+
+    /**
+     * Default maximal number of fields of a path before it is truncated.
+     */
+    public static final int DEFAULT_K = 5;
+
+    private final FieldSignature[] fields;
+    private final boolean truncated;
+    private final int hash;
+
+    private AccessPath(FieldSignature[] fields, boolean truncated) {
+        this.fields = fields;
+        this.truncated = truncated;
+        this.hash = 31 * Arrays.hashCode(fields) + (truncated ? 1 : 0);
+    }
+
+    /**
+     * @return the interned path of {@code fields}, truncated after {@code k} fields
+     */
+    public static AccessPath of(List<FieldSignature> fields, int k) {
+        return of(fields.toArray(NO_FIELDS), false, k);
+    }
+
+    /**
+     * @return the interned path of {@code fields}, e.g. to restore a path that was written out as text
+     */
+    public static AccessPath of(List<FieldSignature> fields, boolean truncated) {
+        return of(fields.toArray(NO_FIELDS), truncated, Integer.MAX_VALUE);
+    }
+
+    private static AccessPath of(FieldSignature[] fields, boolean truncated, int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative, got " + k);
+        }
+        if (fields.length > k) {
+            fields = Arrays.copyOf(fields, k);
+            truncated = true;
+        }
+        if (fields.length == 0 && !truncated) {
+            return EMPTY;
+        }
+        return INTERNER.intern(new AccessPath(fields, truncated));
+    }
+
+    /**
+     * @return this path with {@code field} in front, as needed for a store {@code x.field = y} of a fact on {@code y}
+     */
+    public AccessPath prepend(FieldSignature field, int k) {
+        FieldSignature[] prepended = new FieldSignature[fields.length + 1];
+        prepended[0] = field;
+        System.arraycopy(fields, 0, prepended, 1, fields.length);
+        return of(prepended, truncated, k);
+    }
+
+    /**
+     * Whether a load of {@code field} from the base reads tainted data. A truncated path matches any field
+     * after its explicit ones.
+     */
+    public boolean startsWith(FieldSignature field) {
+        return fields.length == 0 ? truncated : fields[0].equals(field);
+    }
+
+    /**
+     * @return the rest of the path after a load of {@link #startsWith(FieldSignature) a matching} first field
+     */
+    public AccessPath dropFirst() {
+        if (fields.length == 0) {
+            return this;
+        }
+        return of(Arrays.copyOfRange(fields, 1, fields.length), truncated, Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty() {
+        return fields.length == 0 && !truncated;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public int length() {
+        return fields.length;
+    }
+
+    public FieldSignature getFirstField() {
+        return fields.length == 0 ? null : fields[0];
+    }
+
+    public List<FieldSignature> getFields() {
+        return Collections.unmodifiableList(Arrays.asList(fields));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof AccessPath))
+            return false;
+        AccessPath other = (AccessPath) obj;
+        return hash == other.hash && truncated == other.truncated && Arrays.equals(fields, other.fields);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (FieldSignature field : fields) {
+            sb.append(' ').append(field);
+        }
+        if (truncated) {
+            sb.append(" *");
+        }
+        return sb.toString();
+    }
+}
@@ -1,62 +1,109 @@
 package analysis.fact;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import sootup.core.jimple.basic.Local;
 import sootup.core.signatures.FieldSignature;
 import sootup.core.types.NullType;
 
+import java.util.Collections;
+
+/**
+ * Facts are immutable; create them through the {@code of} factories, which return one shared instance per
+ * variable and access path so that the solver's tables hold few objects and mostly compare by reference.
+ */
 public class DataFlowFact {
-    private static final DataFlowFact ZERO = new DataFlowFact(new Local("<ZERO>", NullType.getInstance()), null);
+    private static final Interner<DataFlowFact> INTERNER = Interners.newWeakInterner();
+    private static final DataFlowFact ZERO = INTERNER.intern(new DataFlowFact(new Local("<ZERO>", NullType.getInstance()), AccessPath.EMPTY, false));
     private final Local variable;
-    private final FieldSignature field;
+    private final AccessPath accessPath;
+    private final boolean fieldBased;
+    private final int hash;
+
+    private DataFlowFact(Local variable, AccessPath accessPath, boolean fieldBased) {
+        this.variable = variable;
+        this.accessPath = accessPath;
+        this.fieldBased = fieldBased;
+        this.hash = computeHashCode();
+    }
 
     /**
-     * Use this constructor for the dataflow analysis in Exercise 1.
+     * Use this factory for the dataflow analysis in Exercise 1.
      *
      * @param variable the Jimple local that contains tainted information
      */
-    public DataFlowFact(Local variable) {
-        this(variable, null);
+    public static DataFlowFact of(Local variable) {
+        return of(variable, AccessPath.EMPTY);
     }
 
     /**
-     * Use this constructor for the fieldSignature-based dataflow analysis in Exercise 2.
+     * Use this factory for the fieldSignature-based dataflow analysis in Exercise 2.
      *
      * @param fieldSignature the soot fieldSignature that receives a tainted data-flow.
      */
-    public DataFlowFact(FieldSignature fieldSignature) {
+    public static DataFlowFact of(FieldSignature fieldSignature) {
         //A fieldSignature-based data flow fact has a local variable "FIELDBASED" as base. This is a dummy local variable that we construct here.
-        this(new Local("FIELDBASED", fieldSignature.getType()), fieldSignature);
+        return INTERNER.intern(new DataFlowFact(new Local("FIELDBASED", fieldSignature.getType()),
+                AccessPath.of(Collections.singletonList(fieldSignature), AccessPath.DEFAULT_K), true));
     }
 
     /**
-     * Use this constructor for the field-sensitive dataflow analysis of Exercise 3.
+     * Use this factory for the field-sensitive dataflow analysis of Exercise 3.
      *
      * @param variable       the base variable at a field write statement that receives the taint.
      * @param fieldSignature the soot field that receives a tainted data-flow.
      */
-    public DataFlowFact(Local variable, FieldSignature fieldSignature) {
-        this.variable = variable;
-        this.field = fieldSignature;
+    public static DataFlowFact of(Local variable, FieldSignature fieldSignature) {
+        return of(variable, fieldSignature == null ? AccessPath.EMPTY : AccessPath.of(Collections.singletonList(fieldSignature), AccessPath.DEFAULT_K));
+    }
+
+    /**
+     * Use this factory for taint on a field chain, e.g. {@code a.b.c}.
+     *
+     * @param variable   the base variable
+     * @param accessPath the fields behind the base variable, possibly truncated
+     */
+    public static DataFlowFact of(Local variable, AccessPath accessPath) {
+        return INTERNER.intern(new DataFlowFact(variable, accessPath, false));
     }
 
     public static DataFlowFact getZeroInstance() {
         return ZERO;
     }
 
+    /**
+     * @return whether this fact was created by {@link #of(FieldSignature)}, i.e. its base is the dummy local
+     */
+    public boolean isFieldBased() {
+        return fieldBased;
+    }
+
     public Local getVariable() {
         return variable;
     }
 
+    /**
+     * @return the first field of the access path, or null if the fact is on the variable itself
+     */
     public FieldSignature getFieldSignature() {
-        return field;
+        return accessPath.getFirstField();
+    }
+
+    public AccessPath getAccessPath() {
+        return accessPath;
     }
 
     @Override
     public int hashCode() {
+        return hash;
+    }
+
+    private int computeHashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((field == null) ? 0 : field.hashCode());
+        result = prime * result + accessPath.hashCode();
         result = prime * result + ((variable == null) ? 0 : variable.hashCode());
+        result = prime * result + (fieldBased ? 1 : 0);
         return result;
     }
 
@@ -69,10 +116,9 @@ public class DataFlowFact {
         if (getClass() != obj.getClass())
             return false;
         DataFlowFact other = (DataFlowFact) obj;
-        if (field == null) {
-            if (other.field != null)
-                return false;
-        } else if (!field.equals(other.field))
+        if (hash != other.hash || fieldBased != other.fieldBased)
+            return false;
+        if (!accessPath.equals(other.accessPath))
             return false;
         if (variable == null) {
             return other.variable == null;
@@ -81,7 +127,7 @@ public class DataFlowFact {
 
     @Override
     public String toString() {
-        return variable + (field == null ? "" : " " + field);
+        return variable + accessPath.toString();
     }
 
 }
@@ -0,0 +1,70 @@
+package analysis.fieldbased;
+
+import analysis.fact.DataFlowFact;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.signatures.FieldSignature;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Field-based taint kept beside the IFDS solver instead of in facts: the set of tainted fields only grows, a store of
+ * a tainted value adds its field and a load of a tainted field taints the loaded local. Field taint therefore never
+ * enters the solver's path edges and is not propagated through the statements between the store and the load.
+ * <p>
+ * The table is flow-insensitive: a load sees every store of its field in the analyzed program, also one that the
+ * solver reaches after the load. Each load is registered when the solver first reaches it; when a field becomes
+ * tainted, the registered loads of the field are handed to the re-seeder, which propagates the loaded local from
+ * there. Registering before looking up, and adding before handing out the loads, makes sure that no load misses a
+ * store that races with it on another solver thread.
+ */
+public class FieldTaintTable {
+
+    private final Set<FieldSignature> tainted = ConcurrentHashMap.newKeySet();
+    private final Map<FieldSignature, Map<Stmt, DataFlowFact>> loads = new ConcurrentHashMap<>();
+    private volatile BiConsumer<Stmt, DataFlowFact> reseeder = (load, loaded) -> {
+    };
+
+    /**
+     * @param reseeder receives a load that was reached before its field became tainted, and the fact it now generates
+     */
+    public void setReseeder(BiConsumer<Stmt, DataFlowFact> reseeder) {
+        this.reseeder = reseeder;
+    }
+
+    /**
+     * Registers a load {@code x = y.f} or {@code x = C.f} that the solver reached.
+     *
+     * @param loaded the fact on {@code x}
+     * @return whether {@code field} is tainted, i.e. whether the load generates {@code loaded} now
+     */
+    public boolean load(FieldSignature field, Stmt load, DataFlowFact loaded) {
+        loads.computeIfAbsent(field, f -> new ConcurrentHashMap<>()).putIfAbsent(load, loaded);
+        return tainted.contains(field);
+    }
+
+    /**
+     * Taints {@code field} for a store {@code y.f = x} or {@code C.f = x} of a tainted {@code x}. The first store of a
+     * field re-seeds its loads registered so far.
+     */
+    public void store(FieldSignature field) {
+        if (!tainted.add(field)) {
+            return;
+        }
+        Map<Stmt, DataFlowFact> fieldLoads = loads.get(field);
+        if (fieldLoads != null) {
+            fieldLoads.forEach(reseeder);
+        }
+    }
+
+    public boolean isTainted(FieldSignature field) {
+        return tainted.contains(field);
+    }
+
+    public Set<FieldSignature> getTaintedFields() {
+        return Collections.unmodifiableSet(tainted);
+    }
+}
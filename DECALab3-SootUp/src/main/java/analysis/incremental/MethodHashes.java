@@ -0,0 +1,160 @@
+package analysis.incremental;
+
+import analysis.CallGraphICFG;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Hashes of the methods of an ICFG. The body hash only covers the Jimple of the method itself; the hash of a method
+ * also covers the bodies of all methods it transitively calls, so a change to a method changes the hash of the method
+ * and of every transitive caller, while unrelated methods keep theirs.
+ */
+public class MethodHashes {
+
+    private final CallGraphICFG icfg;
+    private final Map<SootMethod, Long> bodyHashes = new HashMap<>();
+    private final Map<SootMethod, Long> hashes = new HashMap<>();
+
+    public MethodHashes(View view, CallGraphICFG icfg) {
+        this.icfg = icfg;
+        for (MethodSignature signature : icfg.getReachableMethods()) {
+            Optional<? extends SootMethod> method = view.getMethod(signature);
+            if (method.isPresent() && method.get().hasBody()) {
+                bodyHashes.put(method.get(), Hashing.murmur3_128().newHasher()
+                        .putString(signature.toString(), StandardCharsets.UTF_8)
+                        .putString(method.get().getBody().toString(), StandardCharsets.UTF_8)
+                        .hash().asLong());
+            }
+        }
+        hashComponents();
+    }
+
+    /**
+     * Hashes the call graph bottom-up, one strongly connected component at a time: the methods of a component call
+     * each other, so they all share the hash over their bodies and over the hashes of the components they call.
+     * Tarjan's algorithm finds the components in reverse topological order, i.e. every callee component first.
+     */
+    private void hashComponents() {
+        Map<SootMethod, Integer> index = new HashMap<>();
+        Map<SootMethod, Integer> lowLink = new HashMap<>();
+        Deque<SootMethod> stack = new ArrayDeque<>();
+        Set<SootMethod> onStack = new HashSet<>();
+        Map<SootMethod, Long> componentHashes = new HashMap<>();
+        for (SootMethod root : bodyHashes.keySet()) {
+            if (index.containsKey(root)) {
+                continue;
+            }
+            // explicit call stack of the depth-first search, as call chains can be deep
+            Deque<Map.Entry<SootMethod, Iterator<SootMethod>>> path = new ArrayDeque<>();
+            visit(root, index, lowLink, stack, onStack, path);
+            while (!path.isEmpty()) {
+                SootMethod method = path.peek().getKey();
+                Iterator<SootMethod> callees = path.peek().getValue();
+                if (callees.hasNext()) {
+                    SootMethod callee = callees.next();
+                    if (!index.containsKey(callee)) {
+                        visit(callee, index, lowLink, stack, onStack, path);
+                    } else if (onStack.contains(callee)) {
+                        lowLink.put(method, Math.min(lowLink.get(method), index.get(callee)));
+                    }
+                    continue;
+                }
+                path.pop();
+                if (!path.isEmpty()) {
+                    SootMethod caller = path.peek().getKey();
+                    lowLink.put(caller, Math.min(lowLink.get(caller), lowLink.get(method)));
+                }
+                if (lowLink.get(method).equals(index.get(method))) {
+                    Set<SootMethod> component = new HashSet<>();
+                    SootMethod member;
+                    do {
+                        member = stack.pop();
+                        onStack.remove(member);
+                        component.add(member);
+                    } while (member != method);
+                    hashComponent(component, componentHashes);
+                }
+            }
+        }
+    }
+
+    private void visit(SootMethod method, Map<SootMethod, Integer> index, Map<SootMethod, Integer> lowLink,
+                       Deque<SootMethod> stack, Set<SootMethod> onStack,
+                       Deque<Map.Entry<SootMethod, Iterator<SootMethod>>> path) {
+        index.put(method, index.size());
+        lowLink.put(method, index.get(method));
+        stack.push(method);
+        onStack.add(method);
+        path.push(new AbstractMap.SimpleEntry<>(method, calleesOf(method).iterator()));
+    }
+
+    private List<SootMethod> calleesOf(SootMethod method) {
+        List<SootMethod> callees = new ArrayList<>();
+        for (Stmt callSite : icfg.getCallsFromWithin(method)) {
+            callees.addAll(icfg.getCalleesOfCallAt(callSite));
+        }
+        return callees;
+    }
+
+    private void hashComponent(Set<SootMethod> component, Map<SootMethod, Long> componentHashes) {
+        // sorted, so that the hash does not depend on the order in which the methods and callees are found
+        Map<String, Long> members = new TreeMap<>();
+        Set<Long> calleeHashes = new TreeSet<>();
+        for (SootMethod method : component) {
+            members.put(method.getSignature().toString(), bodyHashes.getOrDefault(method, 0L));
+            for (SootMethod callee : calleesOf(method)) {
+                if (!component.contains(callee)) {
+                    calleeHashes.add(componentHashes.get(callee));
+                }
+            }
+        }
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (Map.Entry<String, Long> e : members.entrySet()) {
+            hasher.putString(e.getKey(), StandardCharsets.UTF_8).putLong(e.getValue());
+        }
+        for (long calleeHash : calleeHashes) {
+            hasher.putLong(calleeHash);
+        }
+        long hash = hasher.hash().asLong();
+        for (SootMethod method : component) {
+            componentHashes.put(method, hash);
+            if (bodyHashes.containsKey(method)) {
+                hashes.put(method, hash);
+            }
+        }
+    }
+
+    public Set<SootMethod> getMethods() {
+        return hashes.keySet();
+    }
+
+    /**
+     * @return the hash over the bodies of {@code method} and of all methods it transitively calls
+     */
+    public long hashOf(SootMethod method) {
+        Long hash = hashes.get(method);
+        if (hash == null) {
+            throw new IllegalArgumentException("Method " + method.getSignature() + " is not part of the ICFG");
+        }
+        return hash;
+    }
+}
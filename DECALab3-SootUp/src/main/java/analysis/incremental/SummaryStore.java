@@ -0,0 +1,291 @@
+package analysis.incremental;
+
+import analysis.fact.AccessPath;
+import analysis.fact.DataFlowFact;
+import sootup.core.IdentifierFactory;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The jump functions and end summaries of the IFDS solver per method, kept between runs of the taint analysis.
+ * Each method is stored with the {@link MethodHashes#hashOf(SootMethod) hash} of its body and of everything it
+ * calls; {@link #get} only hands out a method whose hash is unchanged, so an edited method and its transitive callers
+ * are recomputed while all other methods are restored into the solver.
+ * <p>
+ * Statements are stored by their index in the body and facts as text, so a store can be written to a file with
+ * {@link #writeTo(OutputStream)} and used by a later run of the analysis. The edges only hold for the flow functions
+ * and taint model they were computed with, so a store is bound to their
+ * {@link analysis.TaintAnalysisFlowFunctions#fingerprint() fingerprint}, which is written with it, and
+ * {@link #bindTo(long)} rejects a run with another one.
+ */
+public class SummaryStore {
+
+    private static final int MAGIC = 0x49464453;
+    private static final int VERSION = 3;
+
+    private final Map<String, Entry> methods = new ConcurrentHashMap<>();
+    // of the flow functions and taint model the edges were computed with, null until the first run
+    private volatile Long fingerprint;
+
+    /**
+     * Edges of the exploded supergraph: {@code fact} holds at {@code target} if {@code source} held at the start
+     * point of the method. For end summaries, {@code target} is an exit statement.
+     */
+    public static final class Edge {
+        private final DataFlowFact source;
+        private final Stmt target;
+        private final DataFlowFact fact;
+
+        public Edge(DataFlowFact source, Stmt target, DataFlowFact fact) {
+            this.source = source;
+            this.target = target;
+            this.fact = fact;
+        }
+
+        public DataFlowFact getSource() {
+            return source;
+        }
+
+        public Stmt getTarget() {
+            return target;
+        }
+
+        public DataFlowFact getFact() {
+            return fact;
+        }
+    }
+
+    /**
+     * The restored edges of one method.
+     */
+    public static final class Summary {
+        private final List<Edge> jumpFunctions;
+        private final List<Edge> endSummaries;
+
+        Summary(List<Edge> jumpFunctions, List<Edge> endSummaries) {
+            this.jumpFunctions = jumpFunctions;
+            this.endSummaries = endSummaries;
+        }
+
+        public List<Edge> getJumpFunctions() {
+            return jumpFunctions;
+        }
+
+        public List<Edge> getEndSummaries() {
+            return endSummaries;
+        }
+    }
+
+    private static final class Entry {
+        private final long hash;
+        private final List<String> facts;
+        // triples of source fact, statement and fact indices
+        private final int[] jumpFunctions;
+        private final int[] endSummaries;
+
+        Entry(long hash, List<String> facts, int[] jumpFunctions, int[] endSummaries) {
+            this.hash = hash;
+            this.facts = facts;
+            this.jumpFunctions = jumpFunctions;
+            this.endSummaries = endSummaries;
+        }
+    }
+
+    /**
+     * Replaces the stored edges of {@code method}.
+     */
+    public void put(SootMethod method, long hash, Collection<Edge> jumpFunctions, Collection<Edge> endSummaries) {
+        Map<Stmt, Integer> stmtIds = new IdentityHashMap<>();
+        for (Stmt stmt : method.getBody().getStmts()) {
+            stmtIds.put(stmt, stmtIds.size());
+        }
+        List<String> facts = new ArrayList<>();
+        Map<DataFlowFact, Integer> factIds = new HashMap<>();
+        methods.put(method.getSignature().toString(), new Entry(hash, facts,
+                encode(jumpFunctions, stmtIds, facts, factIds), encode(endSummaries, stmtIds, facts, factIds)));
+    }
+
+    private static int[] encode(Collection<Edge> edges, Map<Stmt, Integer> stmtIds, List<String> facts, Map<DataFlowFact, Integer> factIds) {
+        int[] encoded = new int[3 * edges.size()];
+        int i = 0;
+        for (Edge edge : edges) {
+            encoded[i++] = factId(edge.source, facts, factIds);
+            encoded[i++] = stmtIds.get(edge.target);
+            encoded[i++] = factId(edge.fact, facts, factIds);
+        }
+        return encoded;
+    }
+
+    private static int factId(DataFlowFact fact, List<String> facts, Map<DataFlowFact, Integer> factIds) {
+        return factIds.computeIfAbsent(fact, f -> {
+            // field-based facts are written with an empty base, which no local of a body has
+            StringBuilder sb = new StringBuilder(f.isFieldBased() ? "" : f.getVariable().getName());
+            for (FieldSignature field : f.getAccessPath().getFields()) {
+                sb.append('\n').append(field);
+            }
+            if (f.getAccessPath().isTruncated()) {
+                sb.append("\n*");
+            }
+            facts.add(sb.toString());
+            return facts.size() - 1;
+        });
+    }
+
+    /**
+     * @param hash the current hash of {@code method}
+     * @return the stored edges of {@code method}, or nothing if the method is not stored, was stored with another
+     * hash, or its facts no longer fit its body
+     */
+    public Optional<Summary> get(SootMethod method, long hash, IdentifierFactory identifierFactory) {
+        Entry entry = methods.get(method.getSignature().toString());
+        if (entry == null || entry.hash != hash) {
+            return Optional.empty();
+        }
+        List<Stmt> stmts = method.getBody().getStmts();
+        Map<String, Local> locals = new HashMap<>();
+        for (Local local : method.getBody().getLocals()) {
+            locals.put(local.getName(), local);
+        }
+        List<DataFlowFact> facts = new ArrayList<>(entry.facts.size());
+        for (String fact : entry.facts) {
+            DataFlowFact decoded = decode(fact, locals, identifierFactory);
+            if (decoded == null) {
+                return Optional.empty();
+            }
+            facts.add(decoded);
+        }
+        return Optional.of(new Summary(decode(entry.jumpFunctions, stmts, facts), decode(entry.endSummaries, stmts, facts)));
+    }
+
+    private static List<Edge> decode(int[] encoded, List<Stmt> stmts, List<DataFlowFact> facts) {
+        List<Edge> edges = new ArrayList<>(encoded.length / 3);
+        for (int i = 0; i < encoded.length; i += 3) {
+            edges.add(new Edge(facts.get(encoded[i]), stmts.get(encoded[i + 1]), facts.get(encoded[i + 2])));
+        }
+        return edges;
+    }
+
+    private static DataFlowFact decode(String fact, Map<String, Local> locals, IdentifierFactory identifierFactory) {
+        String[] parts = fact.split("\n");
+        if (parts[0].equals(DataFlowFact.getZeroInstance().getVariable().getName())) {
+            return DataFlowFact.getZeroInstance();
+        }
+        boolean truncated = parts[parts.length - 1].equals("*");
+        List<FieldSignature> fields = new ArrayList<>();
+        for (int i = 1; i < parts.length - (truncated ? 1 : 0); i++) {
+            fields.add(identifierFactory.parseFieldSignature(parts[i]));
+        }
+        if (parts[0].isEmpty()) {
+            return fields.size() == 1 && !truncated ? DataFlowFact.of(fields.get(0)) : null;
+        }
+        Local local = locals.get(parts[0]);
+        return local == null ? null : DataFlowFact.of(local, AccessPath.of(fields, truncated));
+    }
+
+    /**
+     * Binds the store to the flow functions and taint model with {@code fingerprint}. An empty store takes any
+     * fingerprint.
+     *
+     * @throws IllegalStateException if the store holds edges computed with another fingerprint, which would restore
+     *                               wrong facts
+     */
+    public synchronized void bindTo(long fingerprint) {
+        if (this.fingerprint != null && this.fingerprint != fingerprint && !methods.isEmpty()) {
+            throw new IllegalStateException("The summary store was computed with other flow functions or another taint "
+                    + "model; start with an empty store");
+        }
+        this.fingerprint = fingerprint;
+    }
+
+    public void remove(MethodSignature method) {
+        methods.remove(method.toString());
+    }
+
+    public boolean contains(MethodSignature method) {
+        return methods.containsKey(method.toString());
+    }
+
+    public int size() {
+        return methods.size();
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeBoolean(fingerprint != null);
+        data.writeLong(fingerprint == null ? 0 : fingerprint);
+        data.writeInt(methods.size());
+        for (Map.Entry<String, Entry> e : methods.entrySet()) {
+            Entry entry = e.getValue();
+            data.writeUTF(e.getKey());
+            data.writeLong(entry.hash);
+            data.writeInt(entry.facts.size());
+            for (String fact : entry.facts) {
+                data.writeUTF(fact);
+            }
+            writeInts(data, entry.jumpFunctions);
+            writeInts(data, entry.endSummaries);
+        }
+        data.flush();
+    }
+
+    private static void writeInts(DataOutputStream data, int[] values) throws IOException {
+        data.writeInt(values.length);
+        for (int value : values) {
+            data.writeInt(value);
+        }
+    }
+
+    public static SummaryStore readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a summary store");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported summary store version " + version);
+        }
+        SummaryStore store = new SummaryStore();
+        boolean bound = data.readBoolean();
+        long fingerprint = data.readLong();
+        store.fingerprint = bound ? fingerprint : null;
+        int methodCount = data.readInt();
+        for (int i = 0; i < methodCount; i++) {
+            String signature = data.readUTF();
+            long hash = data.readLong();
+            List<String> facts = new ArrayList<>();
+            int factCount = data.readInt();
+            for (int f = 0; f < factCount; f++) {
+                facts.add(data.readUTF());
+            }
+            store.methods.put(signature, new Entry(hash, facts, readInts(data), readInts(data)));
+        }
+        return store;
+    }
+
+    private static int[] readInts(DataInputStream data) throws IOException {
+        int[] values = new int[data.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = data.readInt();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,213 @@
+package analysis.model;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.MethodSubSignature;
+import sootup.java.core.JavaIdentifierFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sources, sinks, sanitizers and propagators of the taint analysis, looked up by the signature of the called
+ * method. The model is read from a spec with one rule per line:
+ * <pre>
+ * KIND [category] &lt;declaring.Class: returnType name(paramTypes)&gt; [from positions] [-&gt; to positions]
+ * </pre>
+ * Only sinks have a category, e.g. {@code SINK COMMAND_INJECTION}; a sink without one is an SQL sink.
+ * A declaring class of {@code *} makes the rule apply to the subsignature in every class.
+ * A line {@code LIBRARY declaring.Class} marks a class as summarized: calls to it are handled by its rules alone
+ * and the analysis never descends into its methods. Methods with an exact rule are summarized as well.
+ * Empty lines and lines starting with {@code #} are ignored.
+ */
+public class TaintModel {
+
+    public static final String DEFAULT_SPEC = "/taint-model.spec";
+    public static final String LIBRARY_SUMMARIES_SPEC = "/library-summaries.spec";
+
+    private static TaintModel defaultModel;
+
+    private final Map<MethodSignature, List<TaintRule>> bySignature = new HashMap<>();
+    private final Map<MethodSubSignature, List<TaintRule>> bySubSignature = new HashMap<>();
+    private final Set<String> libraryClasses = new HashSet<>();
+
+    /**
+     * The model bundled as {@value #DEFAULT_SPEC} together with the summaries of JDK string and collection classes
+     * in {@value #LIBRARY_SUMMARIES_SPEC}.
+     */
+    public static synchronized TaintModel getDefault() {
+        if (defaultModel == null) {
+            defaultModel = createDefault();
+        }
+        return defaultModel;
+    }
+
+    /**
+     * @return a new model with the rules of the {@link #getDefault() default model}, to which more rules can be added
+     */
+    public static TaintModel createDefault() {
+        TaintModel model = new TaintModel();
+        model.loadResource(DEFAULT_SPEC);
+        model.loadResource(LIBRARY_SUMMARIES_SPEC);
+        return model;
+    }
+
+    public static TaintModel parse(Reader spec) throws IOException {
+        TaintModel model = new TaintModel();
+        model.load(spec);
+        return model;
+    }
+
+    private void loadResource(String resource) {
+        InputStream in = TaintModel.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalStateException("Taint model " + resource + " is missing from the class path");
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + resource, e);
+        }
+    }
+
+    /**
+     * Adds the rules of a spec to this model.
+     */
+    public void load(Reader spec) throws IOException {
+        BufferedReader reader = new BufferedReader(spec);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                parseRule(line);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid taint rule in line " + lineNumber + ": " + line, e);
+            }
+        }
+    }
+
+    private void parseRule(String line) {
+        if (line.startsWith("LIBRARY ")) {
+            libraryClasses.add(line.substring("LIBRARY ".length()).trim());
+            return;
+        }
+        int start = line.indexOf('<');
+        // names like <init> contain angle brackets as well, the signature ends after the parameter list
+        int end = start < 0 ? -1 : line.indexOf('>', line.indexOf(')', start));
+        if (start < 0 || end < 0) {
+            throw new IllegalArgumentException("missing method signature");
+        }
+        String[] head = line.substring(0, start).trim().split("\\s+");
+        TaintRule.Kind kind = TaintRule.Kind.valueOf(head[0]);
+        if (head.length > 2 || (head.length == 2 && kind != TaintRule.Kind.SINK)) {
+            throw new IllegalArgumentException("only sinks have a category");
+        }
+        String signature = line.substring(start, end + 1);
+
+        List<String> from = new ArrayList<>();
+        List<String> to = new ArrayList<>();
+        List<String> current = from;
+        String positions = line.substring(end + 1).trim();
+        for (String position : positions.isEmpty() ? Collections.<String>emptyList() : Arrays.asList(positions.split("\\s+"))) {
+            if (position.equals("->")) {
+                current = to;
+            } else {
+                checkPosition(position);
+                current.add(position);
+            }
+        }
+        add(signature, head.length == 2 ? new TaintRule(kind, head[1], from, to) : new TaintRule(kind, from, to));
+    }
+
+    private static void checkPosition(String position) {
+        if (position.equals(TaintRule.BASE) || position.equals(TaintRule.RETURN)) {
+            return;
+        }
+        if (!position.startsWith(TaintRule.ARG)) {
+            throw new IllegalArgumentException("unknown position " + position);
+        }
+        Integer.parseInt(position.substring(TaintRule.ARG.length()));
+    }
+
+    /**
+     * @param signature a method signature in Jimple notation, its declaring class may be {@code *}
+     */
+    public void add(String signature, TaintRule rule) {
+        JavaIdentifierFactory factory = JavaIdentifierFactory.getInstance();
+        if (signature.startsWith("<*:")) {
+            MethodSubSignature subSignature = factory.parseMethodSubSignature(signature.substring(3, signature.length() - 1).trim());
+            bySubSignature.computeIfAbsent(subSignature, k -> new ArrayList<>()).add(rule);
+        } else {
+            bySignature.computeIfAbsent(factory.parseMethodSignature(signature), k -> new ArrayList<>()).add(rule);
+        }
+    }
+
+    /**
+     * @return a hash of all rules and library classes, independent of the order in which they were added
+     */
+    public long fingerprint() {
+        List<String> lines = new ArrayList<>();
+        for (String libraryClass : libraryClasses) {
+            lines.add("LIBRARY " + libraryClass);
+        }
+        for (Map.Entry<MethodSignature, List<TaintRule>> e : bySignature.entrySet()) {
+            for (TaintRule rule : e.getValue()) {
+                lines.add(e.getKey() + " " + rule);
+            }
+        }
+        for (Map.Entry<MethodSubSignature, List<TaintRule>> e : bySubSignature.entrySet()) {
+            for (TaintRule rule : e.getValue()) {
+                lines.add("<*: " + e.getKey() + "> " + rule);
+            }
+        }
+        Collections.sort(lines);
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (String line : lines) {
+            hasher.putString(line, StandardCharsets.UTF_8).putChar('\n');
+        }
+        return hasher.hash().asLong();
+    }
+
+    /**
+     * @return true if calls of {@code callee} are fully described by the model and must not be analyzed
+     */
+    public boolean isSummarized(MethodSignature callee) {
+        return libraryClasses.contains(callee.getDeclClassType().getFullyQualifiedName()) || bySignature.containsKey(callee);
+    }
+
+    /**
+     * @return the rules for a call of {@code callee}, empty if the model does not know it
+     */
+    public List<TaintRule> getRules(MethodSignature callee) {
+        List<TaintRule> exact = bySignature.get(callee);
+        List<TaintRule> wildcard = bySubSignature.get(callee.getSubSignature());
+        if (wildcard == null) {
+            return exact == null ? Collections.emptyList() : exact;
+        }
+        if (exact == null) {
+            return wildcard;
+        }
+        List<TaintRule> rules = new ArrayList<>(exact);
+        rules.addAll(wildcard);
+        return rules;
+    }
+}
@@ -0,0 +1,70 @@
+package analysis.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One entry of the {@link TaintModel}. Positions are {@code base}, {@code ret} or {@code argN}.
+ * Sinks have a category, which becomes the rule id of their findings.
+ */
+public final class TaintRule {
+
+    public enum Kind {
+        /** The {@code to} positions receive taint, independent of any incoming fact. */
+        SOURCE,
+        /** A taint on one of the {@code from} positions is a vulnerability. */
+        SINK,
+        /** The {@code to} positions are clean after the call. */
+        SANITIZER,
+        /** A taint on one of the {@code from} positions flows to all {@code to} positions. */
+        PROPAGATOR
+    }
+
+    public static final String BASE = "base";
+    public static final String RETURN = "ret";
+    public static final String ARG = "arg";
+
+    public static final String SQL_INJECTION = "SQL_INJECTION";
+    public static final String COMMAND_INJECTION = "COMMAND_INJECTION";
+    public static final String PATH_TRAVERSAL = "PATH_TRAVERSAL";
+
+    private final Kind kind;
+    private final String category;
+    private final List<String> from;
+    private final List<String> to;
+
+    public TaintRule(Kind kind, List<String> from, List<String> to) {
+        this(kind, kind == Kind.SINK ? SQL_INJECTION : null, from, to);
+    }
+
+    /**
+     * @param category the category of a sink, e.g. {@link #COMMAND_INJECTION}; null for other kinds
+     */
+    public TaintRule(Kind kind, String category, List<String> from, List<String> to) {
+        this.kind = kind;
+        this.category = category;
+        this.from = Collections.unmodifiableList(from);
+        this.to = Collections.unmodifiableList(to);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public List<String> getFrom() {
+        return from;
+    }
+
+    public List<String> getTo() {
+        return to;
+    }
+
+    @Override
+    public String toString() {
+        return kind + (category == null ? "" : " " + category) + " " + String.join(" ", from) + " -> " + String.join(" ", to);
+    }
+}
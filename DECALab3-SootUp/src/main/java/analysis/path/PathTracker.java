@@ -0,0 +1,145 @@
+package analysis.path;
+
+import analysis.fact.DataFlowFact;
+import heros.InterproceduralCFG;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers how facts were derived so that a finding can show how the taint got from the source to the sink.
+ * For each (statement, fact) node only one predecessor is kept, the one closest to a source seen so far, so memory
+ * grows with the number of nodes and not with the number of edges. The resulting witness is a shortest path as far
+ * as the solver's propagation order discovered it, not necessarily the globally shortest one.
+ * <p>
+ * {@link #NONE} records nothing; flow functions use it unless path tracking is switched on.
+ */
+public class PathTracker {
+
+    public static final PathTracker NONE = new PathTracker(null) {
+        @Override
+        public void record(Stmt pred, DataFlowFact predFact, Stmt stmt, DataFlowFact fact) {
+        }
+
+        @Override
+        public List<String> witness(Stmt stmt, DataFlowFact fact) {
+            return Collections.emptyList();
+        }
+    };
+
+    private final InterproceduralCFG<Stmt, SootMethod> icfg;
+    private final Map<Node, Link> predecessors = new ConcurrentHashMap<>();
+
+    public PathTracker(InterproceduralCFG<Stmt, SootMethod> icfg) {
+        this.icfg = icfg;
+    }
+
+    public boolean isEnabled() {
+        return this != NONE;
+    }
+
+    /**
+     * Records that {@code fact} at {@code stmt} was derived from {@code predFact} at {@code pred}.
+     * Facts derived from the zero fact start a path; the zero fact itself is never recorded.
+     */
+    public void record(Stmt pred, DataFlowFact predFact, Stmt stmt, DataFlowFact fact) {
+        if (fact == DataFlowFact.getZeroInstance()) {
+            return;
+        }
+        Node node = new Node(stmt, fact);
+        Link link;
+        if (predFact == DataFlowFact.getZeroInstance()) {
+            // a source
+            link = new Link(new Node(pred, predFact), 0);
+        } else {
+            Node predNode = new Node(pred, predFact);
+            Link predLink = predecessors.get(predNode);
+            // facts from the seeds of the solver have no recorded origin
+            link = new Link(predNode, predLink == null ? 1 : predLink.depth + 1);
+        }
+        predecessors.merge(node, link, (old, candidate) -> candidate.depth < old.depth ? candidate : old);
+    }
+
+    /**
+     * @return the source statement, the statements at which the taint moved to another fact, and {@code stmt}
+     * itself, or an empty list if nothing was recorded for {@code fact} at {@code stmt}
+     */
+    public List<String> witness(Stmt stmt, DataFlowFact fact) {
+        Node node = new Node(stmt, fact);
+        Link link = predecessors.get(node);
+        if (link == null) {
+            return Collections.emptyList();
+        }
+        List<String> path = new ArrayList<>();
+        path.add(describe(stmt, fact));
+        // links recorded before their predecessor was reached can in rare cases form a cycle
+        Set<Node> visited = new HashSet<>();
+        while (link != null && visited.add(node)) {
+            Node pred = link.pred;
+            if (pred.fact == DataFlowFact.getZeroInstance()) {
+                path.add(describe(pred.stmt, node.fact));
+                break;
+            }
+            // statements that only pass the fact on are left out
+            if (!pred.fact.equals(node.fact)) {
+                path.add(describe(pred.stmt, pred.fact));
+            }
+            node = pred;
+            link = predecessors.get(pred);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    public int size() {
+        return predecessors.size();
+    }
+
+    private String describe(Stmt stmt, DataFlowFact fact) {
+        SootMethod method = icfg.getMethodOf(stmt);
+        return (method == null ? "" : method.getSignature() + " ")
+                + "line " + stmt.getPositionInfo().getStmtPosition().getFirstLine() + ": " + stmt + " [" + fact + "]";
+    }
+
+    private static final class Node {
+        private final Stmt stmt;
+        private final DataFlowFact fact;
+
+        Node(Stmt stmt, DataFlowFact fact) {
+            this.stmt = stmt;
+            this.fact = fact;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(stmt) + fact.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Node))
+                return false;
+            Node other = (Node) obj;
+            return stmt == other.stmt && Objects.equals(fact, other.fact);
+        }
+    }
+
+    private static final class Link {
+        private final Node pred;
+        // number of links back to a source
+        private final int depth;
+
+        Link(Node pred, int depth) {
+            this.pred = pred;
+            this.depth = depth;
+        }
+    }
+}
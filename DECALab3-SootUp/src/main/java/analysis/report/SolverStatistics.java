@@ -0,0 +1,175 @@
+package analysis.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What the IFDS solver did in one run of the taint analysis: wall-clock time per phase, the sizes of its tables,
+ * flow function applications per kind and the methods it spent most work on. Written as one JSON object, see
+ * {@link #writeJson(Writer, int)}, to decide which summaries or sparse propagation to switch on.
+ */
+public class SolverStatistics {
+
+    public static final int DEFAULT_TOP_METHODS = 10;
+
+    public static final String PATH_EDGES = "pathEdges";
+    public static final String END_SUMMARIES = "endSummaries";
+    public static final String INCOMING_EDGES = "incomingEdges";
+    public static final String PROPAGATIONS = "propagations";
+    public static final String RESTORED_METHODS = "restoredMethods";
+    public static final String COMPUTED_SUMMARIES = "computedHelperSummaries";
+    public static final String LOADED_SUMMARIES = "loadedHelperSummaries";
+    public static final String TAINTED_FIELDS = "taintedFields";
+    public static final String HEAP_USED_BYTES = "heapUsedBytes";
+
+    private final Map<String, Object> options = new LinkedHashMap<>();
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+    private final Map<String, Long> flowFunctionApplications = new LinkedHashMap<>();
+    private final List<MethodStatistics> methods = new ArrayList<>();
+
+    /**
+     * The work of the solver in one method.
+     */
+    public static final class MethodStatistics {
+        private final String method;
+        private final long pathEdges;
+        private final long facts;
+        private final long flowFunctionApplications;
+
+        public MethodStatistics(String method, long pathEdges, long facts, long flowFunctionApplications) {
+            this.method = method;
+            this.pathEdges = pathEdges;
+            this.facts = facts;
+            this.flowFunctionApplications = flowFunctionApplications;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * @return the path edges that end at a statement of the method, i.e. its (entry fact, statement, fact) triples
+         */
+        public long getPathEdges() {
+            return pathEdges;
+        }
+
+        /**
+         * @return the distinct facts that reached a statement of the method
+         */
+        public long getFacts() {
+            return facts;
+        }
+
+        public long getFlowFunctionApplications() {
+            return flowFunctionApplications;
+        }
+    }
+
+    /**
+     * Records an option of the run, e.g. whether sparse propagation was on.
+     */
+    public void setOption(String name, Object value) {
+        options.put(name, value);
+    }
+
+    public void addPhase(String phase, long nanos) {
+        phaseNanos.merge(phase, nanos, Long::sum);
+    }
+
+    public void setCount(String name, long value) {
+        counts.put(name, value);
+    }
+
+    public void setFlowFunctionApplications(String kind, long applications) {
+        flowFunctionApplications.put(kind, applications);
+    }
+
+    public void addMethod(MethodStatistics method) {
+        methods.add(method);
+    }
+
+    /**
+     * @return the wall-clock time of each phase in the order the phases ran
+     */
+    public Map<String, Long> getPhaseNanos() {
+        return Collections.unmodifiableMap(phaseNanos);
+    }
+
+    /**
+     * @return the count, e.g. {@link #PATH_EDGES}, or 0 if it was not recorded
+     */
+    public long getCount(String name) {
+        return counts.getOrDefault(name, 0L);
+    }
+
+    public Map<String, Long> getFlowFunctionApplications() {
+        return Collections.unmodifiableMap(flowFunctionApplications);
+    }
+
+    /**
+     * @return the methods with the most path edges first
+     */
+    public List<MethodStatistics> getHotMethods(int limit) {
+        List<MethodStatistics> sorted = new ArrayList<>(methods);
+        sorted.sort(Comparator.comparingLong(MethodStatistics::getPathEdges).reversed()
+                .thenComparing(Comparator.comparingLong(MethodStatistics::getFlowFunctionApplications).reversed())
+                .thenComparing(MethodStatistics::getMethod));
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    /**
+     * @param topMethods the number of hot methods to list
+     */
+    public void writeJson(Writer out, int topMethods) throws IOException {
+        out.write(toJson(topMethods));
+    }
+
+    public String toJson(int topMethods) {
+        StringBuilder sb = new StringBuilder("{\"options\":{");
+        int i = 0;
+        for (Map.Entry<String, Object> e : options.entrySet()) {
+            Object value = e.getValue();
+            sb.append(i++ > 0 ? "," : "").append(Json.quote(e.getKey())).append(':')
+                    .append(value instanceof Number || value instanceof Boolean ? value.toString() : Json.quote(String.valueOf(value)));
+        }
+        sb.append("},\"phasesMillis\":");
+        Map<String, Double> millis = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> e : phaseNanos.entrySet()) {
+            millis.put(e.getKey(), e.getValue() / 1e6);
+        }
+        appendObject(sb, millis);
+        sb.append(",\"counts\":");
+        appendObject(sb, counts);
+        sb.append(",\"flowFunctionApplications\":");
+        appendObject(sb, flowFunctionApplications);
+        sb.append(",\"methods\":").append(methods.size()).append(",\"hotMethods\":[");
+        List<MethodStatistics> hot = getHotMethods(topMethods);
+        for (int m = 0; m < hot.size(); m++) {
+            MethodStatistics method = hot.get(m);
+            sb.append(m > 0 ? "," : "")
+                    .append("{\"method\":").append(Json.quote(method.getMethod()))
+                    .append(",\"pathEdges\":").append(method.getPathEdges())
+                    .append(",\"facts\":").append(method.getFacts())
+                    .append(",\"flowFunctionApplications\":").append(method.getFlowFunctionApplications())
+                    .append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static void appendObject(StringBuilder sb, Map<String, ? extends Number> values) {
+        sb.append('{');
+        int i = 0;
+        for (Map.Entry<String, ? extends Number> e : values.entrySet()) {
+            sb.append(i++ > 0 ? "," : "").append(Json.quote(e.getKey())).append(':').append(e.getValue());
+        }
+        sb.append('}');
+    }
+}
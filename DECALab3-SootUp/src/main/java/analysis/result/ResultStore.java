@@ -0,0 +1,287 @@
+package analysis.result;
+
+import analysis.fact.DataFlowFact;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Compact view of the facts that reached each statement. Statements and facts get dense IDs in the order they are
+ * first recorded, and each statement keeps a sorted array of the IDs of its facts, so a statement costs four bytes per
+ * fact that reached it, however many facts the whole run has. {@link #isTaintedAt(Stmt, Local)} is two hash lookups
+ * and a binary search.
+ * <p>
+ * The solver fills a store from {@link #recording(Function)} while it runs, from several threads. A store can be
+ * written with {@link #writeTo(OutputStream)} and read back without the program; the loaded store is read-only and
+ * answers the queries that take statements and facts as strings.
+ */
+public class ResultStore {
+
+    private static final int MAGIC = 0x54414e54;
+    private static final int VERSION = 2;
+
+    private final List<String> factNames = new ArrayList<>();
+    private final Map<String, List<Integer>> factIdsByName = new HashMap<>();
+    private final List<String> stmtMethods = new ArrayList<>();
+    private final List<String> stmtTexts = new ArrayList<>();
+    private final List<FactIds> factsAtStmt = new ArrayList<>();
+    private final Map<String, List<Integer>> stmtIdsByText = new HashMap<>();
+
+    // only available in a store filled by the analysis, not in a loaded one
+    private final Function<Stmt, SootMethod> methodOf;
+    private final Map<Stmt, FactIds> stmtFacts = new ConcurrentHashMap<>();
+    private final Map<DataFlowFact, Integer> factIds = new ConcurrentHashMap<>();
+    private final List<DataFlowFact> facts = new ArrayList<>();
+
+    private ResultStore(Function<Stmt, SootMethod> methodOf) {
+        this.methodOf = methodOf;
+    }
+
+    /**
+     * @param methodOf the method containing a statement
+     * @return an empty store that {@link #record(Stmt, DataFlowFact)} fills
+     */
+    public static ResultStore recording(Function<Stmt, SootMethod> methodOf) {
+        return new ResultStore(methodOf);
+    }
+
+    /**
+     * Adds {@code fact} to the facts that reached {@code stmt}. Safe to call from several threads; the queries may only
+     * be used once recording is over.
+     */
+    public void record(Stmt stmt, DataFlowFact fact) {
+        if (methodOf == null) {
+            throw new IllegalStateException("A loaded result store is read-only");
+        }
+        FactIds ids = stmtFacts.get(stmt);
+        if (ids == null) {
+            ids = stmtFacts.computeIfAbsent(stmt, this::addStmt);
+        }
+        Integer factId = factIds.get(fact);
+        if (factId == null) {
+            factId = factIds.computeIfAbsent(fact, this::addFact);
+        }
+        ids.add(factId);
+    }
+
+    private FactIds addStmt(Stmt stmt) {
+        SootMethod method = methodOf.apply(stmt);
+        return addStmt(method == null ? "" : method.getSignature().toString(), stmt.toString());
+    }
+
+    private synchronized FactIds addStmt(String method, String text) {
+        int id = stmtTexts.size();
+        FactIds ids = new FactIds();
+        stmtMethods.add(method);
+        stmtTexts.add(text);
+        factsAtStmt.add(ids);
+        stmtIdsByText.computeIfAbsent(text, t -> new ArrayList<>(1)).add(id);
+        return ids;
+    }
+
+    private synchronized int addFact(DataFlowFact fact) {
+        facts.add(fact);
+        return addFact(fact.toString());
+    }
+
+    private synchronized int addFact(String name) {
+        int id = factNames.size();
+        factNames.add(name);
+        factIdsByName.computeIfAbsent(name, n -> new ArrayList<>(1)).add(id);
+        return id;
+    }
+
+    public int stmtCount() {
+        return stmtTexts.size();
+    }
+
+    public int factCount() {
+        return factNames.size();
+    }
+
+    /**
+     * @return the (statement, fact) pairs in the store
+     */
+    public long pairCount() {
+        long pairs = 0;
+        for (FactIds ids : factsAtStmt) {
+            pairs += ids.size();
+        }
+        return pairs;
+    }
+
+    /**
+     * @return the most facts that reached a single statement
+     */
+    public int peakFactCount() {
+        int peak = 0;
+        for (FactIds ids : factsAtStmt) {
+            peak = Math.max(peak, ids.size());
+        }
+        return peak;
+    }
+
+    /**
+     * @return the facts that reached {@code stmt}, empty for statements the analysis never reached
+     */
+    public Set<DataFlowFact> factsAt(Stmt stmt) {
+        FactIds ids = stmtFacts.get(stmt);
+        if (ids == null) {
+            return Collections.emptySet();
+        }
+        Set<DataFlowFact> result = new LinkedHashSet<>();
+        for (int id : ids.toArray()) {
+            result.add(facts.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * @return whether the value of {@code local} itself, not only one of its fields, is tainted at {@code stmt}
+     */
+    public boolean isTaintedAt(Stmt stmt, Local local) {
+        FactIds ids = stmtFacts.get(stmt);
+        Integer factId = factIds.get(DataFlowFact.of(local));
+        return ids != null && factId != null && ids.contains(factId);
+    }
+
+    /**
+     * @param methodSignature the method of the statement, or null for statements with this text in any method
+     * @return the {@code toString()} of the facts that reached the statements with text {@code stmt}
+     */
+    public Set<String> factsAt(String methodSignature, String stmt) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int stmtId : stmtIdsByText.getOrDefault(stmt, Collections.emptyList())) {
+            if (methodSignature == null || methodSignature.equals(stmtMethods.get(stmtId))) {
+                for (int id : factsAtStmt.get(stmtId).toArray()) {
+                    result.add(factNames.get(id));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param methodSignature the method of the statement, or null for statements with this text in any method
+     * @param fact            the {@code toString()} of a fact, e.g. the name of a local
+     */
+    public boolean containsFactAt(String methodSignature, String stmt, String fact) {
+        List<Integer> ids = factIdsByName.getOrDefault(fact, Collections.emptyList());
+        for (int stmtId : stmtIdsByText.getOrDefault(stmt, Collections.emptyList())) {
+            if (methodSignature == null || methodSignature.equals(stmtMethods.get(stmtId))) {
+                for (int factId : ids) {
+                    if (factsAtStmt.get(stmtId).contains(factId)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the statements, the fact names and the fact IDs of each statement; the Jimple objects are not part of the
+     * output.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(factNames.size());
+        for (String name : factNames) {
+            data.writeUTF(name);
+        }
+        data.writeInt(stmtTexts.size());
+        for (int i = 0; i < stmtTexts.size(); i++) {
+            data.writeUTF(stmtMethods.get(i));
+            data.writeUTF(stmtTexts.get(i));
+            int[] ids = factsAtStmt.get(i).toArray();
+            data.writeInt(ids.length);
+            for (int id : ids) {
+                data.writeInt(id);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a store written by {@link #writeTo(OutputStream)}. It only answers the queries that take strings.
+     */
+    public static ResultStore readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a result store");
+        }
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported result store version " + version);
+        }
+        ResultStore store = new ResultStore(null);
+        int factCount = data.readInt();
+        for (int i = 0; i < factCount; i++) {
+            store.addFact(data.readUTF());
+        }
+        int stmtCount = data.readInt();
+        for (int i = 0; i < stmtCount; i++) {
+            FactIds ids = store.addStmt(data.readUTF(), data.readUTF());
+            int count = data.readInt();
+            for (int f = 0; f < count; f++) {
+                ids.add(data.readInt());
+            }
+        }
+        return store;
+    }
+
+    /**
+     * The fact IDs of one statement as a sorted array. Statements see few facts each, so an insertion that shifts the
+     * array is cheaper than a set with a node or a bit per possible fact.
+     */
+    private static final class FactIds {
+        private static final int[] EMPTY = new int[0];
+
+        private int[] ids = EMPTY;
+        private int size;
+
+        synchronized void add(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            ids[index] = id;
+            size++;
+        }
+
+        synchronized boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package analysis.sparse;
+
+import analysis.fact.DataFlowFact;
+import heros.InterproceduralCFG;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.ref.JFieldRef;
+import sootup.core.jimple.common.ref.JInstanceFieldRef;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The locals and fields that each statement reads or writes, computed once per method, for sparse propagation: a
+ * fact only needs to be passed through the statements that use or define its base, i.e. its local or, for a
+ * field-based fact, its field. All other statements pass it on unchanged, so the solver can jump over them.
+ * <p>
+ * Calls and exits are never skipped, since the solver needs them to enter and leave methods.
+ */
+public class DefUseChains {
+
+    /**
+     * The statements a fact jumps to from a statement that does not use or define its base, and the statements in
+     * between that it passes unchanged.
+     */
+    public static final class Jump {
+        private final List<Stmt> targets;
+        private final List<Stmt> skipped;
+
+        Jump(List<Stmt> targets, List<Stmt> skipped) {
+            this.targets = targets;
+            this.skipped = skipped;
+        }
+
+        public List<Stmt> getTargets() {
+            return targets;
+        }
+
+        public List<Stmt> getSkipped() {
+            return skipped;
+        }
+    }
+
+    private final InterproceduralCFG<Stmt, SootMethod> icfg;
+    private final Map<SootMethod, Map<Stmt, Set<Object>>> mentions = new ConcurrentHashMap<>();
+    private final Map<Stmt, Map<Object, Jump>> jumps = new ConcurrentHashMap<>();
+
+    public DefUseChains(InterproceduralCFG<Stmt, SootMethod> icfg) {
+        this.icfg = icfg;
+    }
+
+    /**
+     * @return whether the flow function at {@code stmt} may do anything else with {@code fact} than pass it on
+     */
+    public boolean isRelevant(Stmt stmt, DataFlowFact fact) {
+        return fact == DataFlowFact.getZeroInstance() || isRelevant(stmt, baseOf(fact));
+    }
+
+    private boolean isRelevant(Stmt stmt, Object base) {
+        if (icfg.isCallStmt(stmt) || icfg.isExitStmt(stmt)) {
+            return true;
+        }
+        Set<Object> used = mentions.computeIfAbsent(icfg.getMethodOf(stmt), DefUseChains::mentionsOf).get(stmt);
+        return used == null || used.contains(base);
+    }
+
+    /**
+     * @param stmt a statement that is not {@link #isRelevant relevant} for {@code fact}
+     * @return the next statements after {@code stmt} that are relevant for {@code fact}
+     */
+    public Jump jump(Stmt stmt, DataFlowFact fact) {
+        Object base = baseOf(fact);
+        return jumps.computeIfAbsent(stmt, s -> new ConcurrentHashMap<>()).computeIfAbsent(base, b -> computeJump(stmt, b));
+    }
+
+    private Jump computeJump(Stmt stmt, Object base) {
+        Set<Stmt> targets = new LinkedHashSet<>();
+        List<Stmt> skipped = new ArrayList<>();
+        Set<Stmt> visited = new HashSet<>();
+        visited.add(stmt);
+        Deque<Stmt> worklist = new ArrayDeque<>(icfg.getSuccsOf(stmt));
+        while (!worklist.isEmpty()) {
+            Stmt next = worklist.poll();
+            if (!visited.add(next)) {
+                continue;
+            }
+            if (isRelevant(next, base)) {
+                targets.add(next);
+            } else {
+                skipped.add(next);
+                worklist.addAll(icfg.getSuccsOf(next));
+            }
+        }
+        return new Jump(new ArrayList<>(targets), skipped.isEmpty() ? Collections.emptyList() : skipped);
+    }
+
+    private static Object baseOf(DataFlowFact fact) {
+        // field-based facts have a dummy base that no statement mentions
+        return fact.isFieldBased() ? fact.getFieldSignature() : fact.getVariable();
+    }
+
+    private static Map<Stmt, Set<Object>> mentionsOf(SootMethod method) {
+        Map<Stmt, Set<Object>> mentions = new HashMap<>();
+        if (!method.hasBody()) {
+            return mentions;
+        }
+        for (Stmt stmt : method.getBody().getStmts()) {
+            Set<Object> used = new HashSet<>();
+            stmt.getUsesAndDefs().forEach(value -> {
+                addMention(value, used);
+                value.getUses().forEach(nested -> addMention(nested, used));
+            });
+            mentions.put(stmt, used);
+        }
+        return mentions;
+    }
+
+    private static void addMention(Value value, Set<Object> used) {
+        if (value instanceof Local) {
+            used.add(value);
+        } else if (value instanceof JFieldRef) {
+            used.add(((JFieldRef) value).getFieldSignature());
+            if (value instanceof JInstanceFieldRef) {
+                used.add(((JInstanceFieldRef) value).getBase());
+            }
+        }
+    }
+}
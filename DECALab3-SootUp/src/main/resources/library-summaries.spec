@@ -0,0 +1,137 @@
+# Summaries of JDK string and collection classes, see analysis.model.TaintModel for the format.
+# The analysis applies these rules at the call site and never descends into the library bodies.
+
+# strings
+LIBRARY java.lang.String
+LIBRARY java.lang.StringBuilder
+LIBRARY java.lang.StringBuffer
+PROPAGATOR <java.lang.String: java.lang.String concat(java.lang.String)> base arg0 -> ret
+PROPAGATOR <java.lang.String: java.lang.String substring(int)> base -> ret
+PROPAGATOR <java.lang.String: java.lang.String substring(int,int)> base -> ret
+PROPAGATOR <java.lang.String: java.lang.String trim()> base -> ret
+PROPAGATOR <java.lang.String: java.lang.String toLowerCase()> base -> ret
+PROPAGATOR <java.lang.String: java.lang.String toUpperCase()> base -> ret
+PROPAGATOR <java.lang.String: java.lang.String intern()> base -> ret
+PROPAGATOR <java.lang.String: java.lang.String strip()> base -> ret
+PROPAGATOR <java.lang.String: java.lang.String replace(java.lang.CharSequence,java.lang.CharSequence)> base arg1 -> ret
+PROPAGATOR <java.lang.String: java.lang.String replace(char,char)> base -> ret
+PROPAGATOR <java.lang.String: java.lang.String replaceAll(java.lang.String,java.lang.String)> base arg1 -> ret
+PROPAGATOR <java.lang.String: java.lang.String replaceFirst(java.lang.String,java.lang.String)> base arg1 -> ret
+PROPAGATOR <java.lang.String: java.lang.String[] split(java.lang.String)> base -> ret
+PROPAGATOR <java.lang.String: byte[] getBytes()> base -> ret
+PROPAGATOR <java.lang.String: char[] toCharArray()> base -> ret
+PROPAGATOR <java.lang.String: java.lang.String valueOf(java.lang.Object)> arg0 -> ret
+PROPAGATOR <java.lang.String: java.lang.String valueOf(char[])> arg0 -> ret
+PROPAGATOR <java.lang.String: java.lang.String format(java.lang.String,java.lang.Object[])> arg0 arg1 -> ret
+PROPAGATOR <java.lang.String: java.lang.String join(java.lang.CharSequence,java.lang.CharSequence[])> arg0 arg1 -> ret
+PROPAGATOR <java.lang.String: void <init>(java.lang.String)> arg0 -> base
+PROPAGATOR <java.lang.String: void <init>(char[])> arg0 -> base
+PROPAGATOR <java.lang.String: void <init>(byte[])> arg0 -> base
+
+PROPAGATOR <java.lang.StringBuilder: void <init>(java.lang.String)> arg0 -> base
+PROPAGATOR <java.lang.StringBuilder: void <init>(java.lang.CharSequence)> arg0 -> base
+PROPAGATOR <java.lang.StringBuilder: java.lang.StringBuilder append(java.lang.String)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuilder: java.lang.StringBuilder append(java.lang.Object)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuilder: java.lang.StringBuilder append(java.lang.CharSequence)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuilder: java.lang.StringBuilder append(char[])> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuilder: java.lang.StringBuilder append(java.lang.StringBuffer)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuilder: java.lang.StringBuilder append(int)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuilder: java.lang.StringBuilder append(long)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuilder: java.lang.StringBuilder append(char)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuilder: java.lang.StringBuilder append(boolean)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuilder: java.lang.StringBuilder append(float)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuilder: java.lang.StringBuilder append(double)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuilder: java.lang.StringBuilder insert(int,java.lang.String)> arg1 base -> ret base
+PROPAGATOR <java.lang.StringBuilder: java.lang.StringBuilder insert(int,java.lang.Object)> arg1 base -> ret base
+PROPAGATOR <java.lang.StringBuilder: java.lang.StringBuilder reverse()> base -> ret
+PROPAGATOR <java.lang.StringBuilder: java.lang.String substring(int)> base -> ret
+PROPAGATOR <java.lang.StringBuilder: java.lang.String substring(int,int)> base -> ret
+
+PROPAGATOR <java.lang.StringBuffer: void <init>(java.lang.String)> arg0 -> base
+PROPAGATOR <java.lang.StringBuffer: void <init>(java.lang.CharSequence)> arg0 -> base
+PROPAGATOR <java.lang.StringBuffer: java.lang.StringBuffer append(java.lang.String)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuffer: java.lang.StringBuffer append(java.lang.Object)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuffer: java.lang.StringBuffer append(java.lang.CharSequence)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuffer: java.lang.StringBuffer append(char[])> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuffer: java.lang.StringBuffer append(java.lang.StringBuffer)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuffer: java.lang.StringBuffer append(int)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuffer: java.lang.StringBuffer append(long)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuffer: java.lang.StringBuffer append(char)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuffer: java.lang.StringBuffer append(boolean)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuffer: java.lang.StringBuffer append(float)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuffer: java.lang.StringBuffer append(double)> arg0 base -> ret base
+PROPAGATOR <java.lang.StringBuffer: java.lang.StringBuffer insert(int,java.lang.String)> arg1 base -> ret base
+PROPAGATOR <java.lang.StringBuffer: java.lang.StringBuffer insert(int,java.lang.Object)> arg1 base -> ret base
+PROPAGATOR <java.lang.StringBuffer: java.lang.StringBuffer reverse()> base -> ret
+PROPAGATOR <java.lang.StringBuffer: java.lang.String substring(int)> base -> ret
+PROPAGATOR <java.lang.StringBuffer: java.lang.String substring(int,int)> base -> ret
+
+# every toString() returns data derived from its receiver
+PROPAGATOR <*: java.lang.String toString()> base -> ret
+
+# collections: taint on an element taints the whole collection
+LIBRARY java.util.Collection
+LIBRARY java.util.List
+LIBRARY java.util.ArrayList
+LIBRARY java.util.LinkedList
+LIBRARY java.util.Set
+LIBRARY java.util.HashSet
+LIBRARY java.util.Iterator
+LIBRARY java.util.Map
+LIBRARY java.util.HashMap
+LIBRARY java.util.LinkedHashMap
+PROPAGATOR <java.util.Collection: boolean add(java.lang.Object)> arg0 -> base
+PROPAGATOR <java.util.Collection: boolean addAll(java.util.Collection)> arg0 -> base
+PROPAGATOR <java.util.Collection: java.util.Iterator iterator()> base -> ret
+PROPAGATOR <java.util.Collection: java.lang.Object[] toArray()> base -> ret
+PROPAGATOR <java.util.List: boolean add(java.lang.Object)> arg0 -> base
+PROPAGATOR <java.util.List: boolean addAll(java.util.Collection)> arg0 -> base
+PROPAGATOR <java.util.List: java.util.Iterator iterator()> base -> ret
+PROPAGATOR <java.util.List: java.lang.Object[] toArray()> base -> ret
+PROPAGATOR <java.util.ArrayList: boolean add(java.lang.Object)> arg0 -> base
+PROPAGATOR <java.util.ArrayList: boolean addAll(java.util.Collection)> arg0 -> base
+PROPAGATOR <java.util.ArrayList: java.util.Iterator iterator()> base -> ret
+PROPAGATOR <java.util.ArrayList: java.lang.Object[] toArray()> base -> ret
+PROPAGATOR <java.util.LinkedList: boolean add(java.lang.Object)> arg0 -> base
+PROPAGATOR <java.util.LinkedList: boolean addAll(java.util.Collection)> arg0 -> base
+PROPAGATOR <java.util.LinkedList: java.util.Iterator iterator()> base -> ret
+PROPAGATOR <java.util.LinkedList: java.lang.Object[] toArray()> base -> ret
+PROPAGATOR <java.util.Set: boolean add(java.lang.Object)> arg0 -> base
+PROPAGATOR <java.util.Set: boolean addAll(java.util.Collection)> arg0 -> base
+PROPAGATOR <java.util.Set: java.util.Iterator iterator()> base -> ret
+PROPAGATOR <java.util.Set: java.lang.Object[] toArray()> base -> ret
+PROPAGATOR <java.util.HashSet: boolean add(java.lang.Object)> arg0 -> base
+PROPAGATOR <java.util.HashSet: boolean addAll(java.util.Collection)> arg0 -> base
+PROPAGATOR <java.util.HashSet: java.util.Iterator iterator()> base -> ret
+PROPAGATOR <java.util.HashSet: java.lang.Object[] toArray()> base -> ret
+PROPAGATOR <java.util.List: void add(int,java.lang.Object)> arg1 -> base
+PROPAGATOR <java.util.List: java.lang.Object set(int,java.lang.Object)> arg1 -> base
+PROPAGATOR <java.util.List: java.lang.Object get(int)> base -> ret
+PROPAGATOR <java.util.List: java.lang.Object remove(int)> base -> ret
+PROPAGATOR <java.util.ArrayList: void add(int,java.lang.Object)> arg1 -> base
+PROPAGATOR <java.util.ArrayList: java.lang.Object set(int,java.lang.Object)> arg1 -> base
+PROPAGATOR <java.util.ArrayList: java.lang.Object get(int)> base -> ret
+PROPAGATOR <java.util.ArrayList: java.lang.Object remove(int)> base -> ret
+PROPAGATOR <java.util.LinkedList: void add(int,java.lang.Object)> arg1 -> base
+PROPAGATOR <java.util.LinkedList: java.lang.Object set(int,java.lang.Object)> arg1 -> base
+PROPAGATOR <java.util.LinkedList: java.lang.Object get(int)> base -> ret
+PROPAGATOR <java.util.LinkedList: java.lang.Object remove(int)> base -> ret
+PROPAGATOR <java.util.Iterator: java.lang.Object next()> base -> ret
+PROPAGATOR <java.util.Map: java.lang.Object put(java.lang.Object,java.lang.Object)> arg1 -> base
+PROPAGATOR <java.util.Map: void putAll(java.util.Map)> arg0 -> base
+PROPAGATOR <java.util.Map: java.lang.Object get(java.lang.Object)> base -> ret
+PROPAGATOR <java.util.Map: java.lang.Object getOrDefault(java.lang.Object,java.lang.Object)> base arg1 -> ret
+PROPAGATOR <java.util.Map: java.util.Collection values()> base -> ret
+PROPAGATOR <java.util.Map: java.util.Set entrySet()> base -> ret
+PROPAGATOR <java.util.HashMap: java.lang.Object put(java.lang.Object,java.lang.Object)> arg1 -> base
+PROPAGATOR <java.util.HashMap: void putAll(java.util.Map)> arg0 -> base
+PROPAGATOR <java.util.HashMap: java.lang.Object get(java.lang.Object)> base -> ret
+PROPAGATOR <java.util.HashMap: java.lang.Object getOrDefault(java.lang.Object,java.lang.Object)> base arg1 -> ret
+PROPAGATOR <java.util.HashMap: java.util.Collection values()> base -> ret
+PROPAGATOR <java.util.HashMap: java.util.Set entrySet()> base -> ret
+PROPAGATOR <java.util.LinkedHashMap: java.lang.Object put(java.lang.Object,java.lang.Object)> arg1 -> base
+PROPAGATOR <java.util.LinkedHashMap: void putAll(java.util.Map)> arg0 -> base
+PROPAGATOR <java.util.LinkedHashMap: java.lang.Object get(java.lang.Object)> base -> ret
+PROPAGATOR <java.util.LinkedHashMap: java.lang.Object getOrDefault(java.lang.Object,java.lang.Object)> base arg1 -> ret
+PROPAGATOR <java.util.LinkedHashMap: java.util.Collection values()> base -> ret
+PROPAGATOR <java.util.LinkedHashMap: java.util.Set entrySet()> base -> ret
@@ -0,0 +1,30 @@
+# Taint model of the analysis, see analysis.model.TaintModel for the format.
+
+# sources
+SOURCE <target.exercise1.HttpServletRequest: java.lang.String getParameter(java.lang.String)> -> ret
+SOURCE <javax.servlet.ServletRequest: java.lang.String getParameter(java.lang.String)> -> ret
+SOURCE <javax.servlet.http.HttpServletRequest: java.lang.String getParameter(java.lang.String)> -> ret
+
+# sinks
+SINK SQL_INJECTION <java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)> arg0
+SINK SQL_INJECTION <java.sql.Statement: int executeUpdate(java.lang.String)> arg0
+SINK SQL_INJECTION <java.sql.Statement: boolean execute(java.lang.String)> arg0
+SINK SQL_INJECTION <java.sql.Connection: java.sql.PreparedStatement prepareStatement(java.lang.String)> arg0
+SINK COMMAND_INJECTION <java.lang.Runtime: java.lang.Process exec(java.lang.String)> arg0
+SINK COMMAND_INJECTION <java.lang.Runtime: java.lang.Process exec(java.lang.String[])> arg0
+SINK COMMAND_INJECTION <java.lang.ProcessBuilder: void <init>(java.lang.String[])> arg0
+SINK COMMAND_INJECTION <java.lang.ProcessBuilder: java.lang.ProcessBuilder command(java.lang.String[])> arg0
+SINK PATH_TRAVERSAL <java.io.File: void <init>(java.lang.String)> arg0
+SINK PATH_TRAVERSAL <java.io.File: void <init>(java.lang.String,java.lang.String)> arg0 arg1
+SINK PATH_TRAVERSAL <java.io.FileInputStream: void <init>(java.lang.String)> arg0
+SINK PATH_TRAVERSAL <java.io.FileOutputStream: void <init>(java.lang.String)> arg0
+SINK PATH_TRAVERSAL <java.io.FileReader: void <init>(java.lang.String)> arg0
+SINK PATH_TRAVERSAL <java.io.FileWriter: void <init>(java.lang.String)> arg0
+SINK PATH_TRAVERSAL <java.nio.file.Paths: java.nio.file.Path get(java.lang.String,java.lang.String[])> arg0 arg1
+
+# sanitizers: escapers clean their result. Binding a value to a prepared statement (setString() etc.) is neither a
+# sink nor a sanitizer, so it has no rule: the bound value stays tainted for its other uses.
+SANITIZER <org.apache.commons.lang.StringEscapeUtils: java.lang.String escapeSql(java.lang.String)> -> ret
+SANITIZER <org.owasp.esapi.Encoder: java.lang.String encodeForSQL(org.owasp.esapi.codecs.Codec,java.lang.String)> -> ret
+SANITIZER <org.owasp.esapi.Encoder: java.lang.String encodeForOS(org.owasp.esapi.codecs.Codec,java.lang.String)> -> ret
+SANITIZER <org.owasp.esapi.Encoder: java.lang.String canonicalize(java.lang.String)> -> ret
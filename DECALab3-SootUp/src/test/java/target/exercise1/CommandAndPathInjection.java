@@ -0,0 +1,16 @@
+package target.exercise1;
+
+import java.io.FileInputStream;
+
+public class CommandAndPathInjection {
+    public void doGet(HttpServletRequest request) {
+        String file = request.getParameter("file");
+        try {
+            Runtime.getRuntime().exec(file);
+            FileInputStream in = new FileInputStream(file);
+            in.close();
+        } catch (Exception e) {
+            System.out.println("Something went wrong");
+        }
+    }
+}
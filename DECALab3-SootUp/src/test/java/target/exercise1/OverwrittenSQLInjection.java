@@ -0,0 +1,23 @@
+package target.exercise1;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+public class OverwrittenSQLInjection {
+    public void doGet(HttpServletRequest request) {
+        String userId = request.getParameter("userId");
+        String query = "SELECT * FROM  User where userId='" + userId + "'";
+        if (userId.length() > 10) {
+            query = "SELECT * FROM  User";
+            System.out.println(query);
+        }
+        try {
+            Connection conn = DriverManager.getConnection("url", "userName", "password");
+            Statement st = conn.createStatement();
+            st.executeQuery(query);
+        } catch (Exception e) {
+            System.out.println("Something went wrong");
+        }
+    }
+}
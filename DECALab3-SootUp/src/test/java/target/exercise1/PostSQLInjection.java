@@ -0,0 +1,27 @@
+package target.exercise1;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+public class PostSQLInjection {
+    public void doGet(HttpServletRequest request) {
+        String userId = request.getParameter("userId");
+        System.out.println(userId);
+    }
+
+    public void doPost(HttpServletRequest request) {
+        String userId = request.getParameter("userId");
+        delete(userId);
+    }
+
+    private void delete(String userId) {
+        try {
+            Connection conn = DriverManager.getConnection("url", "userName", "password");
+            Statement st = conn.createStatement();
+            st.executeUpdate("DELETE FROM User where userId='" + userId + "'");
+        } catch (Exception e) {
+            System.out.println("Something went wrong");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package target.exercise1;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+public class PrimitiveAppendSQLInjection {
+    public void doGet(HttpServletRequest request, int limit, boolean active) {
+        String userId = request.getParameter("userId");
+        try {
+            Connection conn = DriverManager.getConnection("url", "userName", "password");
+            Statement st = conn.createStatement();
+            String query = "SELECT * FROM  User where userId='" + userId + "' AND active=" + active + " LIMIT " + limit;
+            st.executeQuery(query);
+        } catch (Exception e) {
+            System.out.println("Something went wrong");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package target.exercise1;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+public class RecursiveSQLInjection {
+    public void doGet(HttpServletRequest request) {
+        String userId = request.getParameter("userId");
+        ping(userId, 3);
+    }
+
+    private void ping(String parameter, int n) {
+        if (n > 0) {
+            pong(parameter, n - 1);
+        } else {
+            createQuery(parameter);
+        }
+    }
+
+    private void pong(String parameter, int n) {
+        ping(parameter, n);
+    }
+
+    private void createQuery(String parameter) {
+        try {
+            Connection conn = DriverManager.getConnection("url", "userName", "password");
+            Statement st = conn.createStatement();
+            String query = "SELECT * FROM  User where userId='" + parameter + "'";
+            st.executeQuery(query);
+        } catch (Exception e) {
+            System.out.println("Something went wrong");
+        }
+    }
+}
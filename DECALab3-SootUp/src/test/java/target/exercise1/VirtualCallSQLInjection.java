@@ -0,0 +1,36 @@
+package target.exercise1;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+public class VirtualCallSQLInjection {
+    public void doGet(HttpServletRequest request) {
+        String userId = request.getParameter("userId");
+        QueryRunner runner = new UnsafeQueryRunner();
+        runner.run(userId);
+    }
+
+    interface QueryRunner {
+        void run(String userId);
+    }
+
+    static class UnsafeQueryRunner implements QueryRunner {
+        public void run(String userId) {
+            try {
+                Connection conn = DriverManager.getConnection("url", "userName", "password");
+                Statement st = conn.createStatement();
+                String query = "SELECT * FROM  User where userId='" + userId + "'";
+                st.executeQuery(query);
+            } catch (Exception e) {
+                System.out.println("Something went wrong");
+            }
+        }
+    }
+
+    static class SafeQueryRunner implements QueryRunner {
+        public void run(String userId) {
+            System.out.println(userId);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package target.exercise2and3;
+
+import target.exercise1.HttpServletRequest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+public class AliasFieldSQLInjection {
+    public void doGet(HttpServletRequest request) {
+        String userId = request.getParameter("userId");
+        ObjectWithTaint o = new ObjectWithTaint();
+        ObjectWithTaint alias = o;
+        if (userId.isEmpty()) {
+            alias = new ObjectWithTaint();
+        }
+        // the taint is written through o, but read through alias
+        o.userInput = userId;
+        createQuery(alias);
+    }
+
+    private void createQuery(ObjectWithTaint parameter) {
+        String loaded = parameter.userInput;
+        try {
+            Connection conn = DriverManager.getConnection("url", "userName", "password");
+            Statement st = conn.createStatement();
+            String query = "SELECT * FROM  User where userId='" + loaded + "'";
+            st.executeQuery(query);
+        } catch (Exception e) {
+            System.out.println("Something went wrong");
+        }
+    }
+
+    static class ObjectWithTaint {
+        String userInput = "noUserInput";
+    }
+}
@@ -0,0 +1,24 @@
+package target.exercise2and3;
+
+import target.exercise1.HttpServletRequest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+public class BoundSQLInjection {
+    public void doGet(HttpServletRequest request) {
+        String userId = request.getParameter("userId");
+        try {
+            Connection conn = DriverManager.getConnection("url", "userName", "password");
+            PreparedStatement prepared = conn.prepareStatement("SELECT * FROM  User where userId=?");
+            prepared.setString(1, userId);
+            prepared.executeQuery();
+            Statement st = conn.createStatement();
+            st.executeQuery("SELECT * FROM  Log where userId='" + userId + "'");
+        } catch (Exception e) {
+            System.out.println("Something went wrong");
+        }
+    }
+}
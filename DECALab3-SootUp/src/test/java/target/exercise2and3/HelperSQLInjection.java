@@ -0,0 +1,29 @@
+package target.exercise2and3;
+
+import target.exercise1.HttpServletRequest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+public class HelperSQLInjection {
+    public void doGet(HttpServletRequest request) {
+        String userId = request.getParameter("userId");
+        String name = quote("admin");
+        String id = quote(userId);
+        try {
+            Connection conn = DriverManager.getConnection("url", "userName", "password");
+            Statement st = conn.createStatement();
+            String byName = "SELECT * FROM User where name=" + name;
+            st.executeQuery(byName);
+            String byId = "SELECT * FROM User where userId=" + id;
+            st.executeQuery(byId);
+        } catch (Exception e) {
+            System.out.println("Something went wrong");
+        }
+    }
+
+    private String quote(String value) {
+        return "'" + value.trim() + "'";
+    }
+}
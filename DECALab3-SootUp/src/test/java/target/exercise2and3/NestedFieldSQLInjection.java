@@ -0,0 +1,44 @@
+package target.exercise2and3;
+
+import target.exercise1.HttpServletRequest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+public class NestedFieldSQLInjection {
+    public void doGet(HttpServletRequest request) {
+        String userId = request.getParameter("userId");
+        Outer outer = new Outer(new Inner(userId));
+        createQuery(outer);
+    }
+
+    private void createQuery(Outer parameter) {
+        Inner inner = parameter.inner;
+        String loaded = inner.userInput;
+        try {
+            Connection conn = DriverManager.getConnection("url", "userName", "password");
+            Statement st = conn.createStatement();
+            String query = "SELECT * FROM  User where userId='" + loaded + "'";
+            st.executeQuery(query);
+        } catch (Exception e) {
+            System.out.println("Something went wrong");
+        }
+    }
+
+    static class Outer {
+        Inner inner;
+
+        Outer(Inner inner) {
+            this.inner = inner;
+        }
+    }
+
+    static class Inner {
+        String userInput;
+
+        Inner(String userInput) {
+            this.userInput = userInput;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package target.exercise2and3;
+
+import target.exercise1.HttpServletRequest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+public class ReassignedParameterNoSQLInjection {
+    public void doGet(HttpServletRequest request) {
+        String userId = request.getParameter("userId");
+        ObjectWithTaint o = new ObjectWithTaint();
+        store(o, userId, true);
+        createQuery(o);
+    }
+
+    private void store(ObjectWithTaint target, String value, boolean copy) {
+        // a conditional reassignment keeps target a single local in Jimple
+        if (copy) {
+            target = new ObjectWithTaint();
+        }
+        target.userInput = value;
+    }
+
+    private void createQuery(ObjectWithTaint parameter) {
+        String loaded = parameter.userInput;
+        try {
+            Connection conn = DriverManager.getConnection("url", "userName", "password");
+            Statement st = conn.createStatement();
+            String query = "SELECT * FROM  User where userId='" + loaded + "'";
+            st.executeQuery(query);
+        } catch (Exception e) {
+            System.out.println("Something went wrong");
+        }
+    }
+
+    private static class ObjectWithTaint {
+        String userInput = "noUserInput";
+    }
+}
@@ -0,0 +1,30 @@
+package target.exercise2and3;
+
+import target.exercise1.HttpServletRequest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+public class SanitizedSQLInjection {
+    public void doGet(HttpServletRequest request) {
+        String userId = request.getParameter("userId");
+        String escaped = escape(userId);
+        try {
+            Connection conn = DriverManager.getConnection("url", "userName", "password");
+            Statement st = conn.createStatement();
+            String query = "SELECT * FROM  User where userId='" + escaped + "'";
+            st.executeQuery(query);
+            PreparedStatement prepared = conn.prepareStatement("SELECT * FROM  User where userId=?");
+            prepared.setString(1, userId);
+            prepared.executeQuery();
+        } catch (Exception e) {
+            System.out.println("Something went wrong");
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replaceAll("'", "''");
+    }
+}
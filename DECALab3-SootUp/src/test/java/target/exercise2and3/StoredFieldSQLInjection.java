@@ -0,0 +1,29 @@
+package target.exercise2and3;
+
+import target.exercise1.HttpServletRequest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+public class StoredFieldSQLInjection {
+    private String lastUserId = "noUserInput";
+
+    public void doGet(HttpServletRequest request) {
+        // the query of one request uses the parameter of the request before
+        runQuery();
+        lastUserId = request.getParameter("userId");
+    }
+
+    private void runQuery() {
+        String loaded = lastUserId;
+        try {
+            Connection conn = DriverManager.getConnection("url", "userName", "password");
+            Statement st = conn.createStatement();
+            String query = "SELECT * FROM  User where userId='" + loaded + "'";
+            st.executeQuery(query);
+        } catch (Exception e) {
+            System.out.println("Something went wrong");
+        }
+    }
+}
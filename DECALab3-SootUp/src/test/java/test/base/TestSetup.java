@@ -2,16 +2,11 @@ package test.base;
 
 import analysis.IFDSTaintAnalysisProblem;
 import analysis.TaintAnalysisFlowFunctions;
+import analysis.TaintAnalysisRunner;
 import analysis.VulnerabilityReporter;
-import analysis.fact.DataFlowFact;
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.Multimap;
-import heros.EdgeFunction;
-import heros.InterproceduralCFG;
-import sootup.analysis.interprocedural.icfg.JimpleBasedInterproceduralCFG;
-import sootup.analysis.interprocedural.ifds.JimpleIFDSSolver;
+import analysis.result.ResultStore;
+import sootup.callgraph.ClassHierarchyAnalysisAlgorithm;
 import sootup.core.inputlocation.AnalysisInputLocation;
-import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
@@ -21,9 +16,9 @@ import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
 import sootup.java.core.views.JavaView;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
@@ -32,7 +27,15 @@ public abstract class TestSetup {
     protected final View view;
     protected VulnerabilityReporter reporter;
     protected TaintAnalysisFlowFunctions flowFunctions;
-    protected final Multimap<Stmt, DataFlowFact> dataFlowFactsAtStmt = HashMultimap.create();
+    protected ResultStore results;
+    // set before executing the analysis to attach a source-to-sink witness to each finding
+    protected boolean trackPaths;
+    // set before executing the analysis to summarize helpers with at least this many callers
+    protected int summarizeHelpers;
+    // set before executing the analysis to let facts jump over the statements that do not mention them
+    protected boolean sparse;
+    // set before executing the analysis to keep field taint in a global table instead of in facts
+    protected boolean globalFieldTaint;
 
     protected TestSetup() {
 
@@ -47,22 +50,22 @@ public abstract class TestSetup {
      * For simplification, we test based on toString() representations of the objects.
      */
     protected void assertContainsDataFlowFactAtStmt(String fact, String stmt) {
-        boolean foundStmt = false;
-        for (Entry<Stmt, DataFlowFact> e : dataFlowFactsAtStmt.entries()) {
-            final String stmtStr = e.getKey().toString();
-            final String factStr = e.getValue().toString();
-            if (stmtStr.equals(stmt)) {
-                foundStmt = true;
-                if (factStr.equals(fact)) {
-                    return;
-                }
-            }
+        if (results != null && results.containsFactAt(null, stmt, fact)) {
+            return;
         }
         throw new NoSuchElementException("Analysis does not contain the fact '" + fact + "'.");
     }
 
 
     protected void executeStaticAnalysis(String targetTestClassName) {
+        executeStaticAnalysis(targetTestClassName, false);
+    }
+
+    /*
+     * With withCallGraph, calls are resolved with a CHA call graph built for the entry point beforehand,
+     * instead of by the signature named at the call.
+     */
+    protected void executeStaticAnalysis(String targetTestClassName, boolean withCallGraph) {
         // We want to perform a whole program, i.e. an interprocedural analysis.
         // We construct a basic CHA call graph for the program
         final ClassType classType = view.getIdentifierFactory().getClassType(targetTestClassName);
@@ -73,22 +76,35 @@ public abstract class TestSetup {
         SootClass javaSootClass = (SootClass) aClass.get();
 
         final SootMethod entryPoint = javaSootClass.getMethods().stream().filter(SootMethod::hasBody).filter(ms -> ms.getSignature().getName().equals("doGet")).findAny().get();
-        final List<MethodSignature> entryPoints = Collections.singletonList(entryPoint.getSignature());
+        TaintAnalysisRunner runner = new TaintAnalysisRunner(view).setRecordFacts(true).setTrackPaths(trackPaths).setSummarizeHelpers(summarizeHelpers).setSparse(sparse).setGlobalFieldTaint(globalFieldTaint);
+        if (withCallGraph) {
+            runner.setCallGraph(new ClassHierarchyAnalysisAlgorithm(view).initialize(Collections.singletonList(entryPoint.getSignature())));
+        }
+        TaintAnalysisRunner.Result result = runner.run(flowFunctions, entryPoint.getSignature());
+        recordFacts(result);
+    }
 
-        JimpleBasedInterproceduralCFG icfg = new JimpleBasedInterproceduralCFG(view, entryPoint.getSignature(), false, false);
-        flowFunctions.setICFG(icfg);
-        IFDSTaintAnalysisProblem problem = new IFDSTaintAnalysisProblem(icfg, flowFunctions, entryPoints, view);
-        JimpleIFDSSolver<DataFlowFact, InterproceduralCFG<Stmt, SootMethod>> solver = new JimpleIFDSSolver<DataFlowFact, InterproceduralCFG<Stmt, SootMethod>>(problem) {
-            @Override
-            protected void propagate(DataFlowFact sourceFact, Stmt targetStmt, DataFlowFact targetFact,
-                                     EdgeFunction<BinaryDomain> edgeFunc, Stmt relatedCallSite, boolean isUnbalancedReturn) {
-                synchronized (dataFlowFactsAtStmt) {
-                    dataFlowFactsAtStmt.put(targetStmt, targetFact);
+    /*
+     * Analyzes all request handlers of the given classes in a single solver run over one shared ICFG.
+     */
+    protected TaintAnalysisRunner.Result executeBatchAnalysis(String... targetTestClassNames) {
+        List<MethodSignature> entryPoints = new ArrayList<>();
+        for (String className : targetTestClassNames) {
+            SootClass javaSootClass = view.getClass(view.getIdentifierFactory().getClassType(className))
+                    .orElseThrow(() -> new IllegalArgumentException("Entrypoint class '" + className + "' is not in the View."));
+            for (SootMethod method : javaSootClass.getMethods()) {
+                if (IFDSTaintAnalysisProblem.isHandler(method)) {
+                    entryPoints.add(method.getSignature());
                 }
-                super.propagate(sourceFact, targetStmt, targetFact, edgeFunc, targetStmt, isUnbalancedReturn);
             }
-        };
-        solver.solve();
+        }
+        TaintAnalysisRunner.Result result = new TaintAnalysisRunner(view).setRecordFacts(true).setTrackPaths(trackPaths).setSummarizeHelpers(summarizeHelpers).setSparse(sparse).setGlobalFieldTaint(globalFieldTaint).run(flowFunctions, entryPoints);
+        recordFacts(result);
+        return result;
+    }
+
+    private void recordFacts(TaintAnalysisRunner.Result result) {
+        results = result.getResultStore();
     }
 
 }
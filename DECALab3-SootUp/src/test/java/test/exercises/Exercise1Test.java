@@ -1,16 +1,36 @@
 package test.exercises;
 
+import analysis.TaintAnalysisRunner;
 import analysis.VulnerabilityReporter;
+import analysis.model.TaintRule;
 import analysis.exercise.Exercise1FlowFunctions;
+import analysis.report.Finding;
+import analysis.report.SolverStatistics;
 import org.junit.Before;
 import org.junit.Test;
+import sootup.core.signatures.MethodSignature;
 import target.exercise1.AssignmentSQLInjection;
+import target.exercise1.CommandAndPathInjection;
 import target.exercise1.DirectSQLInjection;
 import target.exercise1.InterproceduralSQLInjection;
+import target.exercise1.LibrarySQLInjection;
 import target.exercise1.NoSQLInjection;
+import target.exercise1.OverwrittenSQLInjection;
+import target.exercise1.PostSQLInjection;
+import target.exercise1.PrimitiveAppendSQLInjection;
+import target.exercise1.VirtualCallSQLInjection;
 import test.base.TestSetup;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class Exercise1Test extends TestSetup {
 
@@ -42,6 +62,29 @@ public class Exercise1Test extends TestSetup {
         assertEquals(1, reporter.getReportedVulnerabilities());
     }
 
+    @Test
+    public void overwrittenSQLInjection() {
+        executeStaticAnalysis(OverwrittenSQLInjection.class.getName());
+
+        // the constant assigned to query kills its taint on that branch, the other branch still reaches the sink
+        assertFalse(results.containsFactAt(null, "virtualinvoke $stack11.<java.io.PrintStream: void println(java.lang.String)>(query)", "query"));
+        assertContainsDataFlowFactAtStmt("query", "interfaceinvoke st.<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>(query)");
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
+
+    @Test
+    public void commandAndPathInjection() {
+        executeStaticAnalysis(CommandAndPathInjection.class.getName());
+
+        assertEquals(2, reporter.getReportedVulnerabilities());
+        List<String> ruleIds = new ArrayList<>();
+        for (Finding finding : reporter.getFindings()) {
+            ruleIds.add(finding.getRuleId());
+        }
+        Collections.sort(ruleIds);
+        assertEquals(Arrays.asList(TaintRule.COMMAND_INJECTION, TaintRule.PATH_TRAVERSAL), ruleIds);
+    }
+
     @Test
     public void noSQLInjection() {
         executeStaticAnalysis(NoSQLInjection.class.getName());
@@ -57,4 +100,78 @@ public class Exercise1Test extends TestSetup {
 
         assertEquals(1, reporter.getReportedVulnerabilities());
     }
+
+    @Test
+    public void interproceduralSQLInjectionWitness() {
+        trackPaths = true;
+        executeStaticAnalysis(InterproceduralSQLInjection.class.getName());
+
+        assertEquals(1, reporter.getReportedVulnerabilities());
+        List<String> path = reporter.getFindings().get(0).getPath();
+        assertTrue(path.get(0).contains("getParameter"));
+        assertTrue(path.get(path.size() - 1).contains("executeQuery"));
+    }
+
+    @Test
+    public void librarySQLInjection() {
+        executeStaticAnalysis(LibrarySQLInjection.class.getName());
+
+        // the taint only reaches the query through the summaries of trim() and concat()
+        assertContainsDataFlowFactAtStmt("query", "interfaceinvoke st.<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>(query)");
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
+
+    @Test
+    public void primitiveAppendSQLInjection() {
+        // the int and boolean appended after userId must not end the taint on the builder
+        executeStaticAnalysis(PrimitiveAppendSQLInjection.class.getName());
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
+
+    @Test
+    public void virtualCallSQLInjection() {
+        // the interface method named at the call has no body, so the flow is only found with a call graph
+        executeStaticAnalysis(VirtualCallSQLInjection.class.getName());
+        assertEquals(0, reporter.getReportedVulnerabilities());
+
+        setup();
+        executeStaticAnalysis(VirtualCallSQLInjection.class.getName(), true);
+        assertContainsDataFlowFactAtStmt("query", "interfaceinvoke st.<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>(query)");
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
+
+    @Test
+    public void batchSQLInjection() {
+        TaintAnalysisRunner.Result result = executeBatchAnalysis(DirectSQLInjection.class.getName(), NoSQLInjection.class.getName(),
+                InterproceduralSQLInjection.class.getName(), PostSQLInjection.class.getName());
+
+        assertEquals(3, reporter.getReportedVulnerabilities());
+        Map<String, Integer> findingsPerEntryPoint = new HashMap<>();
+        for (Map.Entry<MethodSignature, List<Finding>> e : result.groupByReachingEntryPoint(reporter.getFindings()).entrySet()) {
+            findingsPerEntryPoint.put(e.getKey().getDeclClassType().getClassName() + "." + e.getKey().getName(), e.getValue().size());
+        }
+        assertEquals(Integer.valueOf(1), findingsPerEntryPoint.get("DirectSQLInjection.doGet"));
+        assertEquals(Integer.valueOf(0), findingsPerEntryPoint.get("NoSQLInjection.doGet"));
+        // the finding is in createQuery, which is attributed to the handler calling it
+        assertEquals(Integer.valueOf(1), findingsPerEntryPoint.get("InterproceduralSQLInjection.doGet"));
+        assertEquals(Integer.valueOf(0), findingsPerEntryPoint.get("PostSQLInjection.doGet"));
+        assertEquals(Integer.valueOf(1), findingsPerEntryPoint.get("PostSQLInjection.doPost"));
+    }
+
+    @Test
+    public void solverStatistics() {
+        MethodSignature doGet = view.getIdentifierFactory().parseMethodSignature(
+                "<target.exercise1.InterproceduralSQLInjection: void doGet(target.exercise1.HttpServletRequest)>");
+        SolverStatistics statistics = new TaintAnalysisRunner(view).setCollectStatistics(true).run(flowFunctions, doGet)
+                .getStatistics().get();
+
+        assertEquals(1, reporter.getReportedVulnerabilities());
+        assertTrue(statistics.getCount(SolverStatistics.PATH_EDGES) > 0);
+        assertTrue(statistics.getCount(SolverStatistics.END_SUMMARIES) > 0);
+        assertTrue(statistics.getCount(SolverStatistics.INCOMING_EDGES) > 0);
+        assertTrue(statistics.getFlowFunctionApplications().get("CALL") > 0);
+        assertTrue(statistics.getPhaseNanos().containsKey("solve"));
+        assertTrue(statistics.getHotMethods(1).get(0).getMethod().startsWith("<target.exercise1.InterproceduralSQLInjection: "));
+        assertTrue(statistics.toJson(1).contains("\"hotMethods\":[{\"method\":"));
+    }
 }
@@ -8,12 +8,18 @@ import target.exercise1.AssignmentSQLInjection;
 import target.exercise1.DirectSQLInjection;
 import target.exercise1.InterproceduralSQLInjection;
 import target.exercise1.NoSQLInjection;
+import target.exercise1.PrimitiveAppendSQLInjection;
 import target.exercise2and3.FieldNoSQLInjection;
 import target.exercise2and3.FieldSQLInjection1;
 import target.exercise2and3.FieldSQLInjection2;
+import target.exercise2and3.StoredFieldSQLInjection;
 import test.base.TestSetup;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class Exercise2Test extends TestSetup {
 
@@ -93,4 +99,45 @@ public class Exercise2Test extends TestSetup {
 
         assertEquals(1, reporter.getReportedVulnerabilities());
     }
+
+    @Test
+    public void primitiveAppendSQLInjection() {
+        // the int and boolean appended after userId must not end the taint on the builder
+        executeStaticAnalysis(PrimitiveAppendSQLInjection.class.getName());
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
+
+    @Test
+    public void globalFieldTaint() {
+        String conn = "conn#0 = staticinvoke <java.sql.DriverManager: java.sql.Connection getConnection(java.lang.String,java.lang.String,java.lang.String)>(\"url\", \"userName\", \"password\")";
+        for (Class<?> target : Arrays.asList(FieldSQLInjection1.class, FieldSQLInjection2.class, FieldNoSQLInjection.class)) {
+            setup();
+            executeStaticAnalysis(target.getName());
+            int fieldFacts = results.factCount();
+
+            setup();
+            globalFieldTaint = true;
+            executeStaticAnalysis(target.getName());
+            globalFieldTaint = false;
+            assertContainsDataFlowFactAtStmt("loaded", conn);
+            assertFalse(results.factsAt(null, conn).stream().anyMatch(fact -> fact.startsWith("FIELDBASED")));
+            assertTrue(results.factCount() < fieldFacts);
+            assertEquals(1, reporter.getReportedVulnerabilities());
+        }
+    }
+
+    @Test
+    public void storeAfterLoad() {
+        // field facts only reach the loads after the store
+        executeStaticAnalysis(StoredFieldSQLInjection.class.getName());
+        assertEquals(0, reporter.getReportedVulnerabilities());
+
+        // the table re-seeds the load that the solver passed before the store
+        setup();
+        globalFieldTaint = true;
+        executeStaticAnalysis(StoredFieldSQLInjection.class.getName());
+        globalFieldTaint = false;
+        assertContainsDataFlowFactAtStmt("loaded", "conn#0 = staticinvoke <java.sql.DriverManager: java.sql.Connection getConnection(java.lang.String,java.lang.String,java.lang.String)>(\"url\", \"userName\", \"password\")");
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
 }
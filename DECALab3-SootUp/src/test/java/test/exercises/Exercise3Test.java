@@ -1,19 +1,41 @@
 package test.exercises;
 
+import analysis.TaintAnalysisRunner;
+import analysis.TaintAnalysisSolver;
 import analysis.VulnerabilityReporter;
+import analysis.exercise.Exercise2FlowFunctions;
 import analysis.exercise.Exercise3FlowFunctions;
+import analysis.model.TaintModel;
+import analysis.result.ResultStore;
 import org.junit.Before;
 import org.junit.Test;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
 import target.exercise1.AssignmentSQLInjection;
 import target.exercise1.DirectSQLInjection;
 import target.exercise1.InterproceduralSQLInjection;
 import target.exercise1.NoSQLInjection;
+import target.exercise1.PrimitiveAppendSQLInjection;
+import target.exercise2and3.AliasFieldSQLInjection;
+import target.exercise2and3.BoundSQLInjection;
 import target.exercise2and3.FieldNoSQLInjection;
 import target.exercise2and3.FieldSQLInjection1;
 import target.exercise2and3.FieldSQLInjection2;
+import target.exercise2and3.HelperSQLInjection;
+import target.exercise2and3.NestedFieldSQLInjection;
+import target.exercise2and3.ReassignedParameterNoSQLInjection;
+import target.exercise2and3.SanitizedSQLInjection;
 import test.base.TestSetup;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.Arrays;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class Exercise3Test extends TestSetup {
 
@@ -44,6 +66,38 @@ public class Exercise3Test extends TestSetup {
         assertEquals(1, reporter.getReportedVulnerabilities());
     }
 
+    @Test
+    public void nestedFieldSQLInjection() {
+        executeStaticAnalysis(NestedFieldSQLInjection.class.getName());
+
+        assertContainsDataFlowFactAtStmt("parameter <target.exercise2and3.NestedFieldSQLInjection$Outer: target.exercise2and3.NestedFieldSQLInjection$Inner inner> <target.exercise2and3.NestedFieldSQLInjection$Inner: java.lang.String userInput>", "inner = parameter.<target.exercise2and3.NestedFieldSQLInjection$Outer: target.exercise2and3.NestedFieldSQLInjection$Inner inner>");
+        assertContainsDataFlowFactAtStmt("loaded", "conn#0 = staticinvoke <java.sql.DriverManager: java.sql.Connection getConnection(java.lang.String,java.lang.String,java.lang.String)>(\"url\", \"userName\", \"password\")");
+
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
+
+    @Test
+    public void nestedFieldSQLInjectionTruncated() {
+        flowFunctions = new Exercise3FlowFunctions(reporter, 1);
+        executeStaticAnalysis(NestedFieldSQLInjection.class.getName());
+
+        // with k = 1 the path beyond the first field is cut off and stands for all of its extensions
+        assertContainsDataFlowFactAtStmt("parameter <target.exercise2and3.NestedFieldSQLInjection$Outer: target.exercise2and3.NestedFieldSQLInjection$Inner inner> *", "inner = parameter.<target.exercise2and3.NestedFieldSQLInjection$Outer: target.exercise2and3.NestedFieldSQLInjection$Inner inner>");
+
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
+
+    @Test
+    public void aliasFieldSQLInjection() {
+        executeStaticAnalysis(AliasFieldSQLInjection.class.getName());
+
+        // the field is written through one local and passed on through another that aliases it
+        assertContainsDataFlowFactAtStmt("alias <target.exercise2and3.AliasFieldSQLInjection$ObjectWithTaint: java.lang.String userInput>", "specialinvoke this.<target.exercise2and3.AliasFieldSQLInjection: void createQuery(target.exercise2and3.AliasFieldSQLInjection$ObjectWithTaint)>(alias)");
+        assertContainsDataFlowFactAtStmt("loaded", "conn#0 = staticinvoke <java.sql.DriverManager: java.sql.Connection getConnection(java.lang.String,java.lang.String,java.lang.String)>(\"url\", \"userName\", \"password\")");
+
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
+
     @Test
     public void fieldBasedImpreciseTest() {
         executeStaticAnalysis(FieldNoSQLInjection.class.getName());
@@ -75,6 +129,13 @@ public class Exercise3Test extends TestSetup {
         assertEquals(1, reporter.getReportedVulnerabilities());
     }
 
+    @Test
+    public void reassignedParameterNoSQLInjection() {
+        executeStaticAnalysis(ReassignedParameterNoSQLInjection.class.getName());
+        // the callee writes the field of its own object, not of the caller's
+        assertEquals(0, reporter.getReportedVulnerabilities());
+    }
+
     @Test
     public void noSQLInjection() {
         executeStaticAnalysis(NoSQLInjection.class.getName());
@@ -90,4 +151,109 @@ public class Exercise3Test extends TestSetup {
 
         assertEquals(1, reporter.getReportedVulnerabilities());
     }
+
+    @Test
+    public void helperSQLInjection() {
+        executeStaticAnalysis(HelperSQLInjection.class.getName());
+        assertEquals(1, reporter.getReportedVulnerabilities());
+
+        // quote() is called twice, so it is summarized and the solver does not enter it
+        setup();
+        summarizeHelpers = 2;
+        executeStaticAnalysis(HelperSQLInjection.class.getName());
+        assertContainsDataFlowFactAtStmt("byId", "interfaceinvoke st.<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>(byId)");
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
+
+    @Test
+    public void sanitizedSQLInjection() throws IOException {
+        executeStaticAnalysis(SanitizedSQLInjection.class.getName());
+
+        // setString() binds userId to the prepared statement without a finding; userId itself stays tainted
+        assertTrue(results.containsFactAt(null, "interfaceinvoke prepared.<java.sql.PreparedStatement: java.sql.ResultSet executeQuery()>()", "userId"));
+        // escape() is not known as a sanitizer yet, so its result is tainted
+        assertEquals(1, reporter.getReportedVulnerabilities());
+
+        setup();
+        TaintModel model = TaintModel.createDefault();
+        model.load(new StringReader("SANITIZER <target.exercise2and3.SanitizedSQLInjection: java.lang.String escape(java.lang.String)> -> ret\n"));
+        flowFunctions.setTaintModel(model);
+        executeStaticAnalysis(SanitizedSQLInjection.class.getName());
+        assertFalse(results.containsFactAt(null, "interfaceinvoke st.<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>(query)", "query"));
+        assertEquals(0, reporter.getReportedVulnerabilities());
+    }
+
+    @Test
+    public void primitiveAppendSQLInjection() {
+        // the int and boolean appended after userId must not end the taint on the builder
+        executeStaticAnalysis(PrimitiveAppendSQLInjection.class.getName());
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
+
+    @Test
+    public void boundSQLInjection() {
+        // binding userId to a prepared statement does not clean it for the concatenated query that follows
+        executeStaticAnalysis(BoundSQLInjection.class.getName());
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
+
+    @Test
+    public void sparsePropagation() {
+        for (Class<?> target : Arrays.asList(DirectSQLInjection.class, InterproceduralSQLInjection.class, FieldSQLInjection1.class,
+                AliasFieldSQLInjection.class, NestedFieldSQLInjection.class, SanitizedSQLInjection.class)) {
+            setup();
+            executeStaticAnalysis(target.getName());
+            ResultStore dense = results;
+            int denseFindings = reporter.getReportedVulnerabilities();
+
+            setup();
+            sparse = true;
+            executeStaticAnalysis(target.getName());
+            sparse = false;
+            assertEquals(denseFindings, reporter.getReportedVulnerabilities());
+            for (SootMethod method : view.getClass(view.getIdentifierFactory().getClassType(target.getName())).get().getMethods()) {
+                for (Stmt stmt : method.getBody().getStmts()) {
+                    assertEquals(target.getSimpleName() + ": " + stmt, dense.factsAt(null, stmt.toString()), results.factsAt(null, stmt.toString()));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void budgets() {
+        MethodSignature doGet = view.getIdentifierFactory().parseMethodSignature(
+                "<target.exercise2and3.FieldSQLInjection1: void doGet(target.exercise1.HttpServletRequest)>");
+        TaintAnalysisRunner.Result result = new TaintAnalysisRunner(view).setNumThreads(1).setFactBudget(20)
+                .run(flowFunctions, doGet);
+        assertFalse(result.isComplete());
+        assertEquals(TaintAnalysisSolver.Budget.FACTS, result.getExceededBudget().get());
+        assertEquals(0, reporter.getReportedVulnerabilities());
+
+        // the clock is read every 64 propagations, fewer than the run needs
+        result = new TaintAnalysisRunner(view).setNumThreads(1).setTimeBudget(Duration.ofNanos(1)).run(flowFunctions, doGet);
+        assertEquals(TaintAnalysisSolver.Budget.TIME, result.getExceededBudget().get());
+
+        result = new TaintAnalysisRunner(view).setNumThreads(1).setFactBudget(1000).run(flowFunctions, doGet);
+        assertTrue(result.isComplete());
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
+
+    @Test
+    public void fieldBasedFallback() {
+        MethodSignature doGet = view.getIdentifierFactory().parseMethodSignature(
+                "<target.exercise2and3.NestedFieldSQLInjection: void doGet(target.exercise1.HttpServletRequest)>");
+        // far too small for either run, so the fallback runs and stops at the budget as well
+        TaintAnalysisRunner.Result result = new TaintAnalysisRunner(view).setNumThreads(1).setFactBudget(1)
+                .setFallback(() -> new Exercise2FlowFunctions(reporter)).run(flowFunctions, doGet);
+        assertTrue(result.isFallback());
+        assertFalse(result.isComplete());
+        assertEquals(TaintAnalysisSolver.Budget.FACTS, result.getExceededBudget().get());
+
+        // within budget, the first run's result is returned and the fallback is not used
+        result = new TaintAnalysisRunner(view).setNumThreads(1).setFactBudget(100_000)
+                .setFallback(() -> new Exercise2FlowFunctions(reporter)).run(flowFunctions, doGet);
+        assertFalse(result.isFallback());
+        assertTrue(result.isComplete());
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
 }
@@ -0,0 +1,67 @@
+package test.fact;
+
+import analysis.fact.AccessPath;
+import analysis.fact.DataFlowFact;
+import org.junit.Test;
+import sootup.core.jimple.basic.Local;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.types.PrimitiveType;
+import sootup.java.core.JavaIdentifierFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DataFlowFactTest {
+
+    @Test
+    public void factoryReturnsSharedInstance() {
+        DataFlowFact first = DataFlowFact.of(new Local("x", PrimitiveType.getInt()));
+        DataFlowFact second = DataFlowFact.of(new Local("x", PrimitiveType.getInt()));
+        assertSame(first, second);
+        assertNotSame(first, DataFlowFact.of(new Local("y", PrimitiveType.getInt())));
+    }
+
+    @Test
+    public void fieldBasedFactIsNotTakenForALocal() {
+        FieldSignature f = field("f");
+        DataFlowFact local = DataFlowFact.of(new Local("FIELDBASED", f.getType()), f);
+        assertFalse(local.isFieldBased());
+        assertTrue(DataFlowFact.of(f).isFieldBased());
+        assertNotEquals(local, DataFlowFact.of(f));
+    }
+
+    @Test
+    public void accessPathIsTruncatedAtK() {
+        FieldSignature f = field("f");
+        FieldSignature g = field("g");
+        AccessPath path = AccessPath.of(Arrays.asList(f, g), 1);
+        assertTrue(path.isTruncated());
+        assertEquals(1, path.length());
+        assertSame(path, AccessPath.EMPTY.prepend(g, 1).prepend(f, 1));
+
+        // a truncated path matches any field after its explicit ones
+        AccessPath rest = path.dropFirst();
+        assertEquals(0, rest.length());
+        assertTrue(rest.startsWith(g));
+        assertFalse(AccessPath.EMPTY.startsWith(g));
+    }
+
+    @Test
+    public void factsWithSamePathAreShared() {
+        Local x = new Local("x", PrimitiveType.getInt());
+        AccessPath path = AccessPath.of(Arrays.asList(field("f"), field("g")), AccessPath.DEFAULT_K);
+        assertSame(DataFlowFact.of(x, path), DataFlowFact.of(x, AccessPath.EMPTY.prepend(field("g"), 5).prepend(field("f"), 5)));
+        assertEquals(DataFlowFact.of(x, field("f")), DataFlowFact.of(x, AccessPath.of(Collections.singletonList(field("f")), 5)));
+    }
+
+    private static FieldSignature field(String name) {
+        return JavaIdentifierFactory.getInstance().parseFieldSignature("<target.exercise2and3.A: java.lang.String " + name + ">");
+    }
+}
@@ -0,0 +1,154 @@
+package test.incremental;
+
+import analysis.MultiEntryPointICFG;
+import analysis.TaintAnalysisFlowFunctions;
+import analysis.TaintAnalysisRunner;
+import analysis.VulnerabilityReporter;
+import analysis.exercise.Exercise1FlowFunctions;
+import analysis.exercise.Exercise3FlowFunctions;
+import analysis.incremental.MethodHashes;
+import analysis.incremental.SummaryStore;
+import org.junit.Test;
+import sootup.core.model.SootMethod;
+import sootup.core.model.SourceType;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.core.views.JavaView;
+import target.exercise1.InterproceduralSQLInjection;
+import target.exercise1.RecursiveSQLInjection;
+import target.exercise2and3.NestedFieldSQLInjection;
+import test.base.TestSetup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SummaryStoreTest extends TestSetup {
+
+    private static final String EXECUTE_QUERY = "interfaceinvoke st.<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>(query)";
+
+    private TaintAnalysisRunner.Result run(String className, TaintAnalysisFlowFunctions functions, SummaryStore store) {
+        flowFunctions = functions;
+        MethodSignature doGet = signature("<" + className + ": void doGet(target.exercise1.HttpServletRequest)>");
+        TaintAnalysisRunner.Result result = new TaintAnalysisRunner(view).setRecordFacts(true).setSummaryStore(store).run(flowFunctions, doGet);
+        results = result.getResultStore();
+        return result;
+    }
+
+    private MethodSignature signature(String signature) {
+        return view.getIdentifierFactory().parseMethodSignature(signature);
+    }
+
+    private static SummaryStore roundTrip(SummaryStore store) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store.writeTo(out);
+        return SummaryStore.readFrom(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void sparsePropagationKeepsNoSummaries() {
+        // the jump functions of a sparse run miss the statements facts jumped over
+        MethodSignature doGet = signature("<" + InterproceduralSQLInjection.class.getName() + ": void doGet(target.exercise1.HttpServletRequest)>");
+        new TaintAnalysisRunner(view).setSparse(true).setSummaryStore(new SummaryStore()).run(new Exercise1FlowFunctions(new VulnerabilityReporter()), doGet);
+    }
+
+    @Test
+    public void unchangedMethodsAreRestored() throws IOException {
+        SummaryStore store = new SummaryStore();
+        reporter = new VulnerabilityReporter();
+        TaintAnalysisRunner.Result first = run(InterproceduralSQLInjection.class.getName(), new Exercise1FlowFunctions(reporter), store);
+        assertTrue(first.getRestoredMethods().isEmpty());
+        assertEquals(1, reporter.getReportedVulnerabilities());
+
+        reporter = new VulnerabilityReporter();
+        TaintAnalysisRunner.Result second = run(InterproceduralSQLInjection.class.getName(), new Exercise1FlowFunctions(reporter), roundTrip(store));
+        assertTrue(second.getRestoredMethods().contains(signature("<target.exercise1.InterproceduralSQLInjection: void createQuery(java.lang.String)>")));
+        assertTrue(second.getRestoredMethods().contains(signature("<target.exercise1.InterproceduralSQLInjection: void doGet(target.exercise1.HttpServletRequest)>")));
+        // the finding inside the restored callee is reported again
+        assertEquals(1, reporter.getReportedVulnerabilities());
+        assertContainsDataFlowFactAtStmt("query", EXECUTE_QUERY);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void otherFlowFunctionsAreRejected() throws IOException {
+        SummaryStore store = new SummaryStore();
+        run(InterproceduralSQLInjection.class.getName(), new Exercise1FlowFunctions(new VulnerabilityReporter()), store);
+        // the edges of Exercise1FlowFunctions do not hold for Exercise3FlowFunctions
+        run(InterproceduralSQLInjection.class.getName(), new Exercise3FlowFunctions(new VulnerabilityReporter()), roundTrip(store));
+    }
+
+    @Test
+    public void recursiveMethodsShareOneHash() {
+        MethodSignature doGet = signature("<target.exercise1.RecursiveSQLInjection: void doGet(target.exercise1.HttpServletRequest)>");
+        MethodHashes hashes = new MethodHashes(view, new MultiEntryPointICFG(view, Collections.singletonList(doGet)));
+        long ping = hashes.hashOf(method("<target.exercise1.RecursiveSQLInjection: void ping(java.lang.String,int)>"));
+        long pong = hashes.hashOf(method("<target.exercise1.RecursiveSQLInjection: void pong(java.lang.String,int)>"));
+        long createQuery = hashes.hashOf(method("<target.exercise1.RecursiveSQLInjection: void createQuery(java.lang.String)>"));
+        assertEquals(ping, pong);
+        assertNotEquals(ping, createQuery);
+        assertNotEquals(ping, hashes.hashOf(method(doGet.toString())));
+
+        SummaryStore store = new SummaryStore();
+        reporter = new VulnerabilityReporter();
+        run(RecursiveSQLInjection.class.getName(), new Exercise1FlowFunctions(reporter), store);
+        reporter = new VulnerabilityReporter();
+        TaintAnalysisRunner.Result second = run(RecursiveSQLInjection.class.getName(), new Exercise1FlowFunctions(reporter), store);
+        assertTrue(second.getRestoredMethods().contains(signature("<target.exercise1.RecursiveSQLInjection: void ping(java.lang.String,int)>")));
+        assertEquals(1, reporter.getReportedVulnerabilities());
+    }
+
+    private SootMethod method(String signature) {
+        return view.getMethod(signature(signature)).get();
+    }
+
+    @Test
+    public void removedMethodIsSolvedAgain() {
+        SummaryStore store = new SummaryStore();
+        reporter = new VulnerabilityReporter();
+        run(NestedFieldSQLInjection.class.getName(), new Exercise3FlowFunctions(reporter), store);
+        assertEquals(1, reporter.getReportedVulnerabilities());
+
+        MethodSignature createQuery = signature("<target.exercise2and3.NestedFieldSQLInjection: void createQuery(target.exercise2and3.NestedFieldSQLInjection$Outer)>");
+        assertTrue(store.contains(createQuery));
+        store.remove(createQuery);
+
+        reporter = new VulnerabilityReporter();
+        TaintAnalysisRunner.Result second = run(NestedFieldSQLInjection.class.getName(), new Exercise3FlowFunctions(reporter), store);
+        assertFalse(second.getRestoredMethods().contains(createQuery));
+        assertFalse(second.getRestoredMethods().isEmpty());
+        assertEquals(1, reporter.getReportedVulnerabilities());
+        assertTrue(store.contains(createQuery));
+    }
+
+    @Test
+    public void libraryHelperSummariesAreReused() {
+        String classPath = System.getProperty("user.dir") + File.separator + "target" + File.separator + "test-classes";
+        View library = new JavaView(new JavaClassPathAnalysisInputLocation(classPath, SourceType.Library));
+        MethodSignature doGet = library.getIdentifierFactory().parseMethodSignature(
+                "<target.exercise2and3.HelperSQLInjection: void doGet(target.exercise1.HttpServletRequest)>");
+        SummaryStore store = new SummaryStore();
+
+        reporter = new VulnerabilityReporter();
+        TaintAnalysisRunner.Result first = new TaintAnalysisRunner(library).setSummarizeHelpers(2).setLibrarySummaries(store)
+                .run(new Exercise3FlowFunctions(reporter), doGet);
+        assertEquals(1, reporter.getReportedVulnerabilities());
+        // quote() once for the constant and once for the tainted argument
+        assertEquals(2, first.getComputedSummaries());
+        assertEquals(0, first.getLoadedSummaries());
+
+        reporter = new VulnerabilityReporter();
+        TaintAnalysisRunner.Result second = new TaintAnalysisRunner(library).setSummarizeHelpers(2).setLibrarySummaries(store)
+                .run(new Exercise3FlowFunctions(reporter), doGet);
+        assertEquals(1, reporter.getReportedVulnerabilities());
+        assertEquals(0, second.getComputedSummaries());
+        assertEquals(2, second.getLoadedSummaries());
+    }
+}
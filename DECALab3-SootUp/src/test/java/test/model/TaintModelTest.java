@@ -0,0 +1,83 @@
+package test.model;
+
+import analysis.model.TaintModel;
+import analysis.model.TaintRule;
+import org.junit.Test;
+import sootup.java.core.JavaIdentifierFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaintModelTest {
+
+    private final JavaIdentifierFactory factory = JavaIdentifierFactory.getInstance();
+
+    @Test
+    public void exactAndWildcardRules() throws IOException {
+        TaintModel model = TaintModel.parse(new StringReader(
+                "# comment\n"
+                        + "SINK <java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)> arg0\n"
+                        + "PROPAGATOR <*: java.lang.String toString()> base -> ret\n"));
+
+        List<TaintRule> sink = model.getRules(factory.parseMethodSignature("<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>"));
+        assertEquals(1, sink.size());
+        assertEquals(TaintRule.Kind.SINK, sink.get(0).getKind());
+        assertEquals(Arrays.asList("arg0"), sink.get(0).getFrom());
+
+        List<TaintRule> toString = model.getRules(factory.parseMethodSignature("<java.lang.Integer: java.lang.String toString()>"));
+        assertEquals(1, toString.size());
+        assertEquals(Arrays.asList("ret"), toString.get(0).getTo());
+
+        assertTrue(model.getRules(factory.parseMethodSignature("<java.lang.Integer: int intValue()>")).isEmpty());
+    }
+
+    @Test
+    public void fingerprintFollowsTheRules() throws IOException {
+        TaintModel model = TaintModel.createDefault();
+        assertEquals(TaintModel.createDefault().fingerprint(), model.fingerprint());
+
+        model.load(new StringReader("SANITIZER <a.B: java.lang.String escape(java.lang.String)> -> ret\n"));
+        assertNotEquals(TaintModel.createDefault().fingerprint(), model.fingerprint());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownPosition() throws IOException {
+        TaintModel.parse(new StringReader("SOURCE <a.B: java.lang.String get()> -> result\n"));
+    }
+
+    @Test
+    public void defaultModelKnowsGetParameter() {
+        assertTrue(TaintModel.getDefault().getRules(factory.parseMethodSignature(
+                "<target.exercise1.HttpServletRequest: java.lang.String getParameter(java.lang.String)>")).size() > 0);
+    }
+
+    @Test
+    public void librarySummaries() {
+        TaintModel model = TaintModel.getDefault();
+        assertTrue(model.isSummarized(factory.parseMethodSignature("<java.lang.StringBuilder: void <init>(java.lang.String)>")));
+        assertTrue(model.isSummarized(factory.parseMethodSignature("<java.util.Map: java.lang.Object get(java.lang.Object)>")));
+        assertEquals(Arrays.asList("base"), model.getRules(factory.parseMethodSignature("<java.lang.StringBuilder: void <init>(java.lang.String)>")).get(0).getTo());
+        assertFalse(model.isSummarized(factory.parseMethodSignature("<target.exercise1.InterproceduralSQLInjection: void createQuery(java.lang.String)>")));
+    }
+
+    @Test
+    public void sinkCategories() throws IOException {
+        TaintModel model = TaintModel.parse(new StringReader(
+                "SINK COMMAND_INJECTION <java.lang.Runtime: java.lang.Process exec(java.lang.String)> arg0\n"
+                        + "SINK <java.sql.Statement: boolean execute(java.lang.String)> arg0\n"));
+        assertEquals(TaintRule.COMMAND_INJECTION, model.getRules(factory.parseMethodSignature("<java.lang.Runtime: java.lang.Process exec(java.lang.String)>")).get(0).getCategory());
+        assertEquals(TaintRule.SQL_INJECTION, model.getRules(factory.parseMethodSignature("<java.sql.Statement: boolean execute(java.lang.String)>")).get(0).getCategory());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsCategoryOfNonSink() throws IOException {
+        TaintModel.parse(new StringReader("SANITIZER SQL_INJECTION <a.B: java.lang.String escape(java.lang.String)> -> ret\n"));
+    }
+}
@@ -0,0 +1,63 @@
+package test.result;
+
+import analysis.VulnerabilityReporter;
+import analysis.exercise.Exercise1FlowFunctions;
+import analysis.result.ResultStore;
+import org.junit.Before;
+import org.junit.Test;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.common.expr.AbstractInstanceInvokeExpr;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.SootMethod;
+import target.exercise1.DirectSQLInjection;
+import test.base.TestSetup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResultStoreTest extends TestSetup {
+
+    private static final String EXECUTE_QUERY = "interfaceinvoke st.<java.sql.Statement: java.sql.ResultSet executeQuery(java.lang.String)>(query)";
+
+    @Before
+    public void setup() {
+        reporter = new VulnerabilityReporter();
+        flowFunctions = new Exercise1FlowFunctions(reporter);
+    }
+
+    @Test
+    public void queriesByStatementAndLocal() {
+        executeStaticAnalysis(DirectSQLInjection.class.getName());
+
+        SootMethod doGet = view.getMethod(view.getIdentifierFactory().parseMethodSignature(
+                "<target.exercise1.DirectSQLInjection: void doGet(target.exercise1.HttpServletRequest)>")).get();
+        Stmt executeQuery = doGet.getBody().getStmts().stream().filter(s -> s.toString().equals(EXECUTE_QUERY)).findAny().get();
+        Local query = (Local) executeQuery.getInvokeExpr().getArg(0);
+        Local st = ((AbstractInstanceInvokeExpr) executeQuery.getInvokeExpr()).getBase();
+
+        assertTrue(results.isTaintedAt(executeQuery, query));
+        assertFalse(results.isTaintedAt(executeQuery, st));
+        assertEquals(results.factsAt(executeQuery).size(), results.factsAt(doGet.getSignature().toString(), EXECUTE_QUERY).size());
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        executeStaticAnalysis(DirectSQLInjection.class.getName());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        results.writeTo(out);
+        ResultStore loaded = ResultStore.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(results.stmtCount(), loaded.stmtCount());
+        assertEquals(results.factCount(), loaded.factCount());
+        assertEquals(results.pairCount(), loaded.pairCount());
+        assertEquals(results.factsAt(null, EXECUTE_QUERY), loaded.factsAt(null, EXECUTE_QUERY));
+        assertTrue(loaded.containsFactAt("<target.exercise1.DirectSQLInjection: void doGet(target.exercise1.HttpServletRequest)>", EXECUTE_QUERY, "query"));
+        assertFalse(loaded.containsFactAt(null, EXECUTE_QUERY, "st"));
+    }
+}